@@ -0,0 +1,110 @@
+package org.dstadler.multiplication;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the conversion between BigInteger and decimal digits and
+ * other helpers in {@link MathUtils} for numbers with a given number of digits.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConversionBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int digits;
+
+    private BigInteger bigNumber;
+    private byte[] number;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(digits);
+        StringBuilder builder = new StringBuilder();
+        builder.append((char) ('1' + random.nextInt(9)));
+        for (int i = 1; i < digits; i++) {
+            builder.append((char) ('0' + random.nextInt(10)));
+        }
+        bigNumber = new BigInteger(builder.toString());
+        number = new byte[digits + 1];
+    }
+
+    @Benchmark
+    public byte[] toByteArray() {
+        MathUtils.toByteArray(number, bigNumber);
+        return number;
+    }
+
+    @Benchmark
+    public boolean toByteArrayWithoutZero() {
+        // random digits contain a zero early on, so this stops after the lowest digits
+        return MathUtils.toByteArrayWithoutZero(number, bigNumber);
+    }
+
+    @Benchmark
+    public int log10() {
+        return MathUtils.log10(bigNumber);
+    }
+
+    @Benchmark
+    public String bigIntegerToString() {
+        // baseline provided by the JDK
+        return bigNumber.toString();
+    }
+
+    /**
+     * Bases with and without the kernel for powers of two.
+     */
+    @State(Scope.Thread)
+    public static class Radix {
+        @Param({"7", "10", "16"})
+        public int base;
+
+        private RadixPersistence radix;
+
+        @Setup
+        public void setUp() {
+            radix = new RadixPersistence(base);
+        }
+    }
+
+    @Benchmark
+    public byte[] toByteArrayRadix(Radix radix) {
+        // the same number has more digits in smaller bases
+        byte[] digits = new byte[bigNumber.bitLength() + 2];
+        radix.radix.toByteArray(digits, bigNumber);
+        return digits;
+    }
+
+    /**
+     * Factorization is only benchmarked for the products of known smallest numbers,
+     * as random numbers of this size can have very large prime factors.
+     */
+    @State(Scope.Thread)
+    public static class Factorization {
+        @Param({"2677889", "277777788888899", "1277777788888899", "84772818479372227374"})
+        public String input;
+    }
+
+    @Benchmark
+    public List<BigInteger> primeFactors(Factorization factorization) {
+        return MathUtils.primeFactors(factorization.input);
+    }
+}
@@ -0,0 +1,80 @@
+package org.dstadler.multiplication;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for enumerating numbers, i.e. increment and candidate-checks,
+ * starting at the first number with the given number of digits.
+ *
+ * The numbers are not reset between invocations, so the benchmarks walk
+ * through the numbers just like the search does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IncrementBenchmark {
+    @Param({"10", "50", "90"})
+    public int digits;
+
+    private byte[] number;
+    private ByteArrayInteger integer;
+    private DigitHistogram histogram;
+
+    @Setup
+    public void setUp() {
+        number = new byte[MathUtils.MAX_DIGITS];
+        Arrays.fill(number, (byte) -1);
+        Arrays.fill(number, 0, digits, (byte) 2);
+
+        integer = new ByteArrayInteger(number);
+
+        histogram = new DigitHistogram(2);
+        histogram.start(digits, "");
+    }
+
+    @Benchmark
+    public byte[] incrementByteArray() {
+        MultiplicativeDigitalRootByteArray.increment(number);
+        return number;
+    }
+
+    @Benchmark
+    public ByteArrayInteger incrementByteArrayInteger() {
+        integer.increment();
+        return integer;
+    }
+
+    @Benchmark
+    public DigitHistogram nextDigitHistogram() {
+        histogram.next();
+        return histogram;
+    }
+
+    @Benchmark
+    public boolean incrementAndCandidateByteArray() {
+        MultiplicativeDigitalRootByteArray.increment(number);
+        return MultiplicativeDigitalRootByteArray.candidate(number);
+    }
+
+    @Benchmark
+    public boolean incrementAndCandidateClass() {
+        integer.increment();
+        return integer.isCandidate();
+    }
+}
@@ -0,0 +1,48 @@
+package org.dstadler.multiplication;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks a complete search of the histogram representation up to a number of digits
+ * with different numbers of threads, one thread uses the sequential search as baseline.
+ *
+ * Run with "-PjmhInclude=ParallelSearchBenchmark" on a machine with at least as many
+ * cores as threads to see how the search scales.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelSearchBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"60"})
+    public int digits;
+
+    @Benchmark
+    public SearchEngine.Result search() {
+        return SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM)
+                .threads(threads)
+                .maxDigits(digits)
+                .targetPersistence(Integer.MAX_VALUE)
+                .listener(new SearchListener() {
+                })
+                .build()
+                .run();
+    }
+}
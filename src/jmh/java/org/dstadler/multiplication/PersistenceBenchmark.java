@@ -0,0 +1,116 @@
+package org.dstadler.multiplication;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for computing the multiplicative digital root and persistence
+ * of numbers with a given number of digits.
+ *
+ * The digits are random, but without 0 and 1, so the full chain of products is computed.
+ *
+ * The batch-benchmarks compute the persistence of 1024 numbers with 18 digits each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PersistenceBenchmark {
+    @Param({"10", "50", "100"})
+    public int digits;
+
+    private String numberStr;
+    private byte[] number;
+    private DigitHistogram histogram;
+    private final DecimalLimbKernel kernel = new DecimalLimbKernel();
+
+    private final long[] longs = new long[1024];
+    private final String[] longStrings = new String[longs.length];
+    private final int[] persistences = new int[longs.length];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(digits);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < digits; i++) {
+            builder.append((char) ('2' + random.nextInt(8)));
+        }
+        numberStr = builder.toString();
+
+        number = new byte[MathUtils.MAX_DIGITS + 1];
+        Arrays.fill(number, (byte) -1);
+        MathUtils.toByteArray(number, new BigInteger(numberStr));
+
+        histogram = new DigitHistogram();
+        while (histogram.getLength() < digits) {
+            histogram.next();
+        }
+
+        for (int i = 0; i < longs.length; i++) {
+            for (int d = 0; d < 18; d++) {
+                longs[i] = longs[i] * 10 + 2 + random.nextInt(8);
+            }
+            longStrings[i] = Long.toString(longs[i]);
+        }
+    }
+
+    @Benchmark
+    public int getPersistenceString() {
+        return MathUtils.getPersistence(numberStr);
+    }
+
+    @Benchmark
+    public int getPersistenceByteArray() {
+        return MathUtils.getPersistence(number);
+    }
+
+    @Benchmark
+    public int getPersistenceHistogram() {
+        return MathUtils.getPersistence(histogram);
+    }
+
+    @Benchmark
+    public int getPersistenceDecimalKernel() {
+        return kernel.getPersistence(number);
+    }
+
+    @Benchmark
+    public int[] getPersistenceLongBatch() {
+        MathUtils.getPersistence(longs, persistences);
+        return persistences;
+    }
+
+    @Benchmark
+    public int[] getPersistenceStringBatch() {
+        for (int i = 0; i < longStrings.length; i++) {
+            persistences[i] = MathUtils.getPersistence(longStrings[i]);
+        }
+        return persistences;
+    }
+
+    @Benchmark
+    public BigInteger getMultiplicativeDigitalRootString() {
+        return MathUtils.getMultiplicativeDigitalRoot(numberStr);
+    }
+
+    @Benchmark
+    public BigInteger getMultiplicativeDigitalRootByteArray() {
+        return MathUtils.getMultiplicativeDigitalRoot(number);
+    }
+}
@@ -0,0 +1,187 @@
+package org.dstadler.multiplication;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded ring of pre-allocated batches of numbers which are passed from one producer
+ * to multiple consumers without locks.
+ *
+ * Batches are numbered by an ever increasing sequence, the slot of a sequence is
+ * sequence % capacity. For each slot it is stored which sequence was published last
+ * and which one was released last, so producer and consumers only wait for the
+ * slot they need:
+ *
+ * <ul>
+ * <li>the producer fills sequence s after sequence s - capacity was released, so it
+ * blocks when the consumers fall behind by a whole ring</li>
+ * <li>consumers take the next sequence via an atomic counter and wait until it is published</li>
+ * </ul>
+ *
+ * Waiting spins for a short time, then yields and finally parks for a few microseconds.
+ */
+class BatchRingBuffer {
+    private static final int SPINS = 64;
+    private static final int YIELDS = 128;
+    private static final long PARK_NANOS = 20_000;
+
+    /**
+     * Numbers stored as byte-arrays with digits in reverse order, each one
+     * takes {@link MathUtils#MAX_DIGITS} bytes.
+     *
+     * The consumer stores the numbers which had a higher persistence than all numbers
+     * before them in the same batch, they stay valid until the batch is claimed again.
+     */
+    static class Batch {
+        final byte[] numbers;
+        int size;
+
+        int[] recordIndexes = new int[16];
+        int[] recordPersistences = new int[16];
+        int recordCount;
+
+        private Batch(int batchSize) {
+            numbers = new byte[batchSize * MathUtils.MAX_DIGITS];
+        }
+
+        void addRecord(int index, int persistence) {
+            if (recordCount == recordIndexes.length) {
+                recordIndexes = Arrays.copyOf(recordIndexes, recordCount * 2);
+                recordPersistences = Arrays.copyOf(recordPersistences, recordCount * 2);
+            }
+            recordIndexes[recordCount] = index;
+            recordPersistences[recordCount] = persistence;
+            recordCount++;
+        }
+    }
+
+    private final Batch[] batches;
+    private final int mask;
+    private final AtomicLongArray published;
+    private final AtomicLongArray released;
+    private final AtomicLong nextTake = new AtomicLong();
+
+    // the first sequence which is never published, set when the producer is done
+    private volatile long end = Long.MAX_VALUE;
+    private volatile boolean aborted;
+
+    /**
+     * @param capacity How many batches can be in flight, rounded up to a power of two
+     * @param batchSize How many numbers fit into one batch
+     */
+    BatchRingBuffer(int capacity, int batchSize) {
+        if (capacity < 1 || capacity > 1 << 20) {
+            throw new IllegalArgumentException("Capacity needs to be between 1 and " + (1 << 20) + ", but had: " + capacity);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size needs to be at least 1, but had: " + batchSize);
+        }
+
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        mask = size - 1;
+        batches = new Batch[size];
+        published = new AtomicLongArray(size);
+        released = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            batches[i] = new Batch(batchSize);
+            published.set(i, -1);
+
+            // as if the previous round was already released
+            released.set(i, i - size);
+        }
+    }
+
+    int getCapacity() {
+        return batches.length;
+    }
+
+    /**
+     * Wait until the batch for the given sequence can be filled by the producer.
+     *
+     * @param sequence The next sequence of the producer, starting at 0
+     * @return The batch to fill
+     * @throws IllegalStateException If a consumer aborted
+     */
+    Batch claim(long sequence) {
+        int slot = (int) sequence & mask;
+        for (int i = 0; released.get(slot) != sequence - batches.length; i++) {
+            idle(i);
+        }
+        return batches[slot];
+    }
+
+    /**
+     * Make the filled batch available to the consumers.
+     */
+    void publish(long sequence) {
+        published.set((int) sequence & mask, sequence);
+    }
+
+    /**
+     * Called by the producer after publishing the last batch.
+     *
+     * @param end The sequence after the last published one
+     */
+    void close(long end) {
+        this.end = end;
+    }
+
+    /**
+     * Wait for the next published batch, each one is only taken by one consumer.
+     *
+     * @return The sequence of the batch or -1 if the producer is done
+     * @throws IllegalStateException If processing was aborted
+     */
+    long take() {
+        long sequence = nextTake.getAndIncrement();
+        int slot = (int) sequence & mask;
+        for (int i = 0; published.get(slot) != sequence; i++) {
+            if (sequence >= end) {
+                return -1;
+            }
+            idle(i);
+        }
+        return sequence;
+    }
+
+    Batch get(long sequence) {
+        return batches[(int) sequence & mask];
+    }
+
+    /**
+     * Called by the consumer when it is done with the batch, so the producer can fill it again.
+     */
+    void release(long sequence) {
+        released.set((int) sequence & mask, sequence);
+    }
+
+    /**
+     * @return If the consumer is done with the batch of the given sequence and it was not claimed again
+     */
+    boolean isReleased(long sequence) {
+        return released.get((int) sequence & mask) == sequence;
+    }
+
+    /**
+     * Stop all waiting producers and consumers, e.g. because a consumer failed.
+     */
+    void abort() {
+        aborted = true;
+    }
+
+    private void idle(int iteration) {
+        if (aborted) {
+            throw new IllegalStateException("Processing of batches was aborted");
+        }
+
+        if (iteration < SPINS) {
+            Thread.onSpinWait();
+        } else if (iteration < YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
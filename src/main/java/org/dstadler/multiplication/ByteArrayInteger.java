@@ -7,38 +7,37 @@ import java.util.Arrays;
 
 /**
  * A class which models an arbitrary long integer via
- * a byte array
+ * packed digits, 4 bits per digit and 16 digits per long.
+ *
+ * The digits are stored with lowest ones first, the array grows on demand,
+ * so the number is not limited by {@link MathUtils#MAX_DIGITS}.
  */
 public class ByteArrayInteger {
-	private final byte[] number = new byte[MAX_DIGITS];
+	private static final int DIGITS_PER_WORD = 16;
+
+	private long[] number = new long[2];
 	private int digits = 0;
 
 	public ByteArrayInteger() {
-		Arrays.fill(number, (byte) -1);
 	}
 
+	/**
+	 * @param arr The digits with lowest ones first, terminated by "-1" or the end of the array
+	 */
 	protected ByteArrayInteger(byte[] arr) {
-		this();
-
-		for (int i = 0; i < arr.length; i++) {
-			number[i] = arr[i];
-			if (arr[i] != -1) {
-				digits++;
+		for (byte digit : arr) {
+			if (digit == -1) {
+				break;
 			}
+
+			setDigit(digits++, digit);
 		}
 	}
 
 	protected ByteArrayInteger(BigInteger big) {
-		this();
-
-		MathUtils.toByteArray(number, big);
-
-		for (int i = 0; i < MAX_DIGITS; i++) {
-			if (number[i] == -1) {
-				break;
-			}
-
-			digits++;
+		String str = big.toString();
+		for (int i = str.length() - 1; i >= 0; i--) {
+			setDigit(digits++, str.charAt(i) - '0');
 		}
 	}
 
@@ -49,40 +48,39 @@ public class ByteArrayInteger {
 	 * skip large parts of numbers which are not interesting anyway, e.g.
 	 * all numbers containing "0" or "1".
 	 *
-	 * The byte-array should be initialized fully with "-1" values.
-	 *
-	 * This method expects to usually only receive an empty byte-array (all -1s)
+	 * This method expects to usually only receive an empty number
 	 * or numbers which were the result of previous invocations of this method!
 	 */
 	public void increment() {
-		for(int i = 0;i < MAX_DIGITS;i++) {
-			byte nr = number[i];
-
+		for(int i = 0;;i++) {
 			// reached the end and thus should set the current digit to 1 now
-			if (nr == -1) {
+			if (i == digits) {
 				// skip 0 and 1 as both are not seen as candidates anyway
-				number[i] = 2;
+				setDigit(i, 2);
 				digits = i+1;
 				break;
 			}
 
+			int nr = getDigit(i);
+
 			// when a digit is 9, set it to 2 and continue incrementing the next digits
 			if (nr == 9) {
 				// all digits except the first two need to be 7, 8 or 9
 				if (digits > 2 && i < (digits - 2)) {
-					number[i] = 7;
+					setDigit(i, 7);
 				} else {
 					// skip 0 and 1 as both are not seen as candidates anyway
-					number[i] = 2;
+					setDigit(i, 2);
 				}
 			} else {
 				// if the following digit is higher, we can immediately increment to it
 				// as otherwise we do not have digits in ascending order anymore
-				if (number[i + 1] > (nr + 1)) {
-					number[i] = number[i + 1];
+				int next = i + 1 < digits ? getDigit(i + 1) : -1;
+				if (next > (nr + 1)) {
+					setDigit(i, next);
 				} else {
 					// otherwise simply increment
-					number[i] = (byte) (nr + 1);
+					setDigit(i, nr + 1);
 				}
 
 				break;
@@ -90,27 +88,151 @@ public class ByteArrayInteger {
 		}
 	}
 
-	public byte[] getArray() {
-		return number;
+	/**
+	 * @param position The position of the digit, 0 for the lowest one
+	 * @return The digit at this position
+	 */
+	public int getDigit(int position) {
+		return (int) (number[position / DIGITS_PER_WORD] >>> ((position % DIGITS_PER_WORD) * 4)) & 0xF;
 	}
 
-	public BigInteger getAsBigInteger() {
-		return new BigInteger(MathUtils.toString(number));
+	private void setDigit(int position, int digit) {
+		int word = position / DIGITS_PER_WORD;
+		if (word >= number.length) {
+			number = Arrays.copyOf(number, Math.max(word + 1, number.length * 2));
+		}
+
+		int shift = (position % DIGITS_PER_WORD) * 4;
+		number[word] = (number[word] & ~(0xFL << shift)) | ((long) digit << shift);
 	}
 
-	public int getLength() {
-		int count = 0;
-		for (; count < MAX_DIGITS; count++) {
-			if (number[count] == -1) {
-				break;
+	/**
+	 * Check if this number is a useful candidate for checking multiplicative persistence,
+	 * the same as {@link MultiplicativeDigitalRootClass#candidate(byte[])}, but on
+	 * the packed digits.
+	 *
+	 * @return true if this number can be checked for persistence or false if
+	 *      it should be skipped.
+	 */
+	public boolean isCandidate() {
+		// not a candidate if digits are not ordered
+		int prev = 9;
+		boolean two = false, three = false, five = false;
+		for (int w = 0; w * DIGITS_PER_WORD < digits; w++) {
+			long word = number[w];
+			int count = Math.min(DIGITS_PER_WORD, digits - w * DIGITS_PER_WORD);
+			for (int j = 0; j < count; j++, word >>>= 4) {
+				int b = (int) (word & 0xF);
+				if (b > prev) {
+					return false;
+				}
+
+				if (b == 2) {
+					// "2" and "2" could be replaced by "4" and would give a smaller number
+					// "2" and "3" can be replaced by "6" and this would give a smaller number
+					// two and five together cause a "10"
+					if (two || three || five) {
+						return false;
+					}
+					two = true;
+				} else if (b == 3) {
+					// "3" and "3" can be replaced by "9" and this would give a smaller number
+					if (three) {
+						return false;
+					}
+					three = true;
+				} else if (b == 5) {
+					five = true;
+				}
+
+				prev = b;
 			}
 		}
 
-		return count;
+		return true;
+	}
+
+	/**
+	 * Compute the multiplicative persistence from the packed digits, the same
+	 * as {@link MathUtils#getPersistence(byte[])}.
+	 *
+	 * As only the product of the digits is needed, this only counts the
+	 * prime factors of the digits instead of multiplying them.
+	 *
+	 * @return How many times the multiplicative digital root can be computed on this number.
+	 */
+	public int getPersistence() {
+		int twos = 0, threes = 0, fives = 0, sevens = 0;
+		for (int w = 0; w * DIGITS_PER_WORD < digits; w++) {
+			long word = number[w];
+			int count = Math.min(DIGITS_PER_WORD, digits - w * DIGITS_PER_WORD);
+			for (int j = 0; j < count; j++, word >>>= 4) {
+				switch ((int) (word & 0xF)) {
+					case 0:
+						return 1;
+					case 2:
+						twos++;
+						break;
+					case 3:
+						threes++;
+						break;
+					case 4:
+						twos += 2;
+						break;
+					case 5:
+						fives++;
+						break;
+					case 6:
+						twos++;
+						threes++;
+						break;
+					case 7:
+						sevens++;
+						break;
+					case 8:
+						twos += 3;
+						break;
+					case 9:
+						threes += 2;
+						break;
+					default:
+						// "1" does not change the product
+						break;
+				}
+			}
+		}
+
+		return MathUtils.getPersistence(twos, threes, fives, sevens);
+	}
+
+	/**
+	 * @return The digits unpacked into a new byte-array with lowest digits first,
+	 *      filled up with "-1" to at least {@link MathUtils#MAX_DIGITS} entries and
+	 *      always terminated by "-1".
+	 */
+	public byte[] getArray() {
+		byte[] arr = new byte[Math.max(MAX_DIGITS, digits + 1)];
+		for (int i = 0; i < digits; i++) {
+			arr[i] = (byte) getDigit(i);
+		}
+		Arrays.fill(arr, digits, arr.length, (byte) -1);
+		return arr;
+	}
+
+	public BigInteger getAsBigInteger() {
+		return new BigInteger(toString());
+	}
+
+	public int getLength() {
+		return digits;
 	}
 
 	public String toString() {
-		return MathUtils.toString(number);
+		char[] chars = new char[digits];
+		for (int i = 0; i < digits; i++) {
+			chars[digits - 1 - i] = (char) ('0' + getDigit(i));
+		}
+		return new String(chars);
 	}
 
 	protected int getDigits() {
@@ -0,0 +1,247 @@
+package org.dstadler.multiplication;
+
+/**
+ * Numbers the candidates in the order in which {@link DigitHistogram#next()} enumerates them,
+ * i.e. the numbers with ascending digits 2 to 9 which are accepted by the candidate-rules,
+ * so a search can start at any of them or only check a range of them.
+ *
+ * E.g. 2 =&gt; 0, 3 =&gt; 1, 9 =&gt; 7, 24 =&gt; 8
+ *
+ * The ranks are not found by enumerating, but by counting how many numbers with
+ * given leading digits exist: digits 4, 5, 6, 7, 8 and 9 can appear any number of times,
+ * so the ways to fill up the remaining digits are binomial coefficients, "2" and "3"
+ * can only be added once.
+ *
+ * Ranks are stored in a long, an {@link ArithmeticException} is thrown for numbers
+ * with so many digits that their rank does not fit, i.e. above 3800 digits if the
+ * low digits are not restricted.
+ */
+public class CandidateRanking {
+    private final int maxLowDigits;
+
+    /**
+     * @param maxLowDigits How many of the digits 2 to 6 are allowed in a number,
+     *                     see {@link DigitHistogram#DigitHistogram(int)}
+     */
+    public CandidateRanking(int maxLowDigits) {
+        if (maxLowDigits < 0) {
+            throw new IllegalArgumentException("Invalid number of low digits: " + maxLowDigits);
+        }
+        this.maxLowDigits = maxLowDigits;
+    }
+
+    /**
+     * @param length The number of digits
+     * @return How many candidates have the given number of digits
+     * @throws ArithmeticException If the count does not fit into a long
+     */
+    public long count(int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Length cannot be negative, but had: " + length);
+        }
+        return countCompletions(new int[10], 2, length);
+    }
+
+    /**
+     * @param length The number of digits
+     * @return The rank of the smallest candidate with the given number of digits,
+     *      i.e. how many candidates have fewer digits
+     * @throws ArithmeticException If the rank does not fit into a long
+     */
+    public long firstRank(int length) {
+        long rank = 0;
+        for (int i = 1; i < length; i++) {
+            rank = Math.addExact(rank, count(i));
+        }
+        return rank;
+    }
+
+    /**
+     * @param number A candidate with digits in ascending order
+     * @return The position of the number in the enumeration, starting at 0
+     * @throws IllegalArgumentException If the number is not a candidate
+     */
+    public long rank(String number) {
+        int[] counts = new int[10];
+        int prev = 2;
+        for (char c : number.toCharArray()) {
+            int digit = c - 0x30;
+            if (digit < prev || digit > 9) {
+                throw new IllegalArgumentException("Number " + number + " needs ascending digits 2 to 9");
+            }
+            counts[digit]++;
+            prev = digit;
+        }
+
+        return rank(counts, number.length());
+    }
+
+    /**
+     * @param histogram The current number of the histogram, which needs to use the same
+     *                  restriction of low digits
+     * @return The position of the current number of the histogram in the enumeration
+     */
+    public long rank(DigitHistogram histogram) {
+        int[] counts = new int[10];
+        for (int digit = 2; digit <= 9; digit++) {
+            counts[digit] = histogram.getCount(digit);
+        }
+
+        return rank(counts, histogram.getLength());
+    }
+
+    private long rank(int[] counts, int length) {
+        if (length == 0 || !allowed(counts[2], counts[3], counts[5], getLowDigits(counts))) {
+            throw new IllegalArgumentException("Not a candidate with at most " + maxLowDigits + " low digits: " +
+                    toString(counts));
+        }
+
+        // all numbers which have more of the current digit at this position are smaller
+        long rank = firstRank(length);
+        int[] prefix = new int[10];
+        int remaining = length;
+        for (int digit = 2; digit <= 9; digit++) {
+            for (int c = remaining; c > counts[digit]; c--) {
+                prefix[digit] = c;
+                rank = Math.addExact(rank, countCompletions(prefix, digit + 1, remaining - c));
+            }
+
+            prefix[digit] = counts[digit];
+            remaining -= counts[digit];
+        }
+
+        return rank;
+    }
+
+    /**
+     * @param rank The position in the enumeration, starting at 0
+     * @return The candidate at this position
+     */
+    public String unrank(long rank) {
+        DigitHistogram histogram = new DigitHistogram(maxLowDigits);
+        unrank(rank, histogram);
+        return histogram.toString();
+    }
+
+    /**
+     * Move the histogram to the candidate at the given position, calling {@link DigitHistogram#next()}
+     * afterwards continues with the following candidates.
+     *
+     * @param rank The position in the enumeration, starting at 0
+     * @param histogram The histogram to adjust, which needs to use the same restriction of low digits
+     */
+    public void unrank(long rank, DigitHistogram histogram) {
+        if (rank < 0) {
+            throw new IllegalArgumentException("Rank cannot be negative, but had: " + rank);
+        }
+
+        int length = 1;
+        for (long count = count(length); rank >= count; count = count(length)) {
+            rank -= count;
+            length++;
+        }
+
+        // take as many of each digit as possible, fewer of them give larger numbers
+        int[] counts = new int[10];
+        int remaining = length;
+        for (int digit = 2; digit <= 9; digit++) {
+            for (int c = remaining; c >= 0; c--) {
+                counts[digit] = c;
+                long completions = countCompletions(counts, digit + 1, remaining - c);
+                if (rank < completions) {
+                    break;
+                }
+                rank -= completions;
+            }
+
+            remaining -= counts[digit];
+        }
+
+        histogram.set(counts, length);
+    }
+
+    /**
+     * @param counts How often each digit occurs, only the digits below the given one are set
+     * @param digit The smallest digit which can still be added
+     * @param remaining How many digits are added
+     * @return How many ways of adding digits lead to a candidate
+     */
+    private long countCompletions(int[] counts, int digit, int remaining) {
+        int low = getLowDigits(counts);
+        if (!allowed(counts[2], counts[3], counts[5], low)) {
+            return 0;
+        }
+
+        // 4, 6 and 7, 8, 9 can always be added, 5 only without a 2
+        int high = 10 - Math.max(digit, 7);
+        boolean five = digit <= 5 && counts[2] == 0;
+        int free = (digit <= 4 ? 1 : 0) + (five ? 1 : 0) + (digit <= 6 ? 1 : 0);
+
+        // a single "2" or "3", the "2" excludes any "5"
+        boolean two = digit <= 2;
+        boolean three = digit <= 3 && counts[3] == 0 && counts[2] == 0;
+        int freeWithTwo = five ? free - 1 : free;
+
+        int budget = maxLowDigits - low;
+        if (budget >= remaining) {
+            long count = multisets(free + high, remaining);
+            if (two) {
+                count = Math.addExact(count, multisets(freeWithTwo + high, remaining - 1));
+            }
+            if (three) {
+                count = Math.addExact(count, multisets(free + high, remaining - 1));
+            }
+            return count;
+        }
+
+        // split the remaining digits into low and high ones
+        long count = 0;
+        for (int l = 0; l <= budget; l++) {
+            long lowCount = multisets(free, l);
+            if (two) {
+                lowCount += multisets(freeWithTwo, l - 1);
+            }
+            if (three) {
+                lowCount += multisets(free, l - 1);
+            }
+            count = Math.addExact(count, Math.multiplyExact(lowCount, multisets(high, remaining - l)));
+        }
+        return count;
+    }
+
+    /**
+     * @return In how many ways n items can be chosen from k kinds, i.e. binomial(n + k - 1, k - 1)
+     */
+    private static long multisets(int k, int n) {
+        if (n < 0) {
+            return 0;
+        }
+        if (k == 0) {
+            return n == 0 ? 1 : 0;
+        }
+
+        // binomial(n + i, i) from binomial(n + i - 1, i - 1), the division is always exact
+        long result = 1;
+        for (int i = 1; i < k; i++) {
+            result = Math.multiplyExact(result, n + i) / i;
+        }
+        return result;
+    }
+
+    private boolean allowed(int twos, int threes, int fives, int low) {
+        // see the rules in MultiplicativeDigitalRootByteArray.candidate()
+        return twos <= 1 && threes <= 1 && (twos == 0 || (threes == 0 && fives == 0)) && low <= maxLowDigits;
+    }
+
+    private static int getLowDigits(int[] counts) {
+        return counts[2] + counts[3] + counts[4] + counts[5] + counts[6];
+    }
+
+    private static String toString(int[] counts) {
+        StringBuilder builder = new StringBuilder();
+        for (int digit = 2; digit <= 9; digit++) {
+            builder.append(String.valueOf((char) (digit + 0x30)).repeat(counts[digit]));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,354 @@
+package org.dstadler.multiplication;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Stores the state of a long-running search in a small memory-mapped file
+ * so that it can be resumed after a restart.
+ *
+ * The file contains two slots which are written alternately, each one with a
+ * sequence number, the length of the stored state and a checksum. A crash while
+ * writing one slot thus always leaves the previous checkpoint intact in the other slot.
+ *
+ * The number and the records are stored with their length, so numbers with more than
+ * {@link MathUtils#MAX_DIGITS} digits, e.g. of {@link ByteArrayInteger}, are kept completely.
+ * When a state does not fit into a slot anymore, the slots are enlarged: the state is written
+ * to the second slot of the new layout behind the end of the old file before the header is
+ * switched to the new slot size, while the first slot stays where it was.
+ *
+ * Usage via commandline: "--checkpoint &lt;file&gt;" to write checkpoints and
+ * "--resume" to continue from the last checkpoint in the file.
+ */
+public class Checkpoint implements Closeable {
+    public static final String DEFAULT_FILE = "multiplicative-digital-root.checkpoint";
+
+    // checkpoints are only written this often
+    public static final long INTERVAL_MS = 60_000;
+
+    public static final int MAX_PERSISTENCE = 16;
+
+    private static final int MAGIC = 0x4D445243;
+    private static final int VERSION = 2;
+
+    // magic, version, slot size
+    private static final int HEADER_SIZE = 12;
+
+    // sequence, crc, length of the state
+    private static final int SLOT_HEADER_SIZE = 8 + 4 + 4;
+
+    // maxPersistence, digits, countCheck, countCandidate, elapsed, length of the number
+    private static final int STATE_FIELDS_SIZE = 4 + 4 + 8 + 8 + 8 + 4;
+
+    private static final int INITIAL_SLOT_SIZE = 4096;
+
+    private final FileChannel channel;
+    private final boolean resume;
+    private MappedByteBuffer buffer;
+    private int slotSize;
+    private long sequence;
+    private long lastSave = System.currentTimeMillis();
+
+    /**
+     * The state of a search, i.e. the current number, counters and the
+     * smallest number found for each persistence so far.
+     */
+    public static class State {
+        private final byte[] number;
+        private final int digits;
+        private final int maxPersistence;
+        private final long countCheck;
+        private final long countCandidate;
+        private final long elapsed;
+        private final String[] records;
+
+        /**
+         * @param number The current number as byte-array with digits in reverse order, terminated by "-1"
+         * @param digits The internal digit-counter of the increment
+         * @param maxPersistence The highest persistence found so far
+         * @param countCheck The number of numbers for which persistence was computed
+         * @param countCandidate The number of numbers which were checked for being a candidate
+         * @param elapsed The milliseconds spent in the search so far
+         * @param records The smallest number found for each persistence, indexed by persistence, may contain null
+         */
+        public State(byte[] number, int digits, int maxPersistence, long countCheck,
+                     long countCandidate, long elapsed, String[] records) {
+            this.number = number.clone();
+            this.digits = digits;
+            this.maxPersistence = maxPersistence;
+            this.countCheck = countCheck;
+            this.countCandidate = countCandidate;
+            this.elapsed = elapsed;
+            this.records = Arrays.copyOf(records, MAX_PERSISTENCE);
+        }
+
+        public byte[] getNumber() {
+            return number;
+        }
+
+        public int getDigits() {
+            return digits;
+        }
+
+        public int getMaxPersistence() {
+            return maxPersistence;
+        }
+
+        public long getCountCheck() {
+            return countCheck;
+        }
+
+        public long getCountCandidate() {
+            return countCandidate;
+        }
+
+        public long getElapsed() {
+            return elapsed;
+        }
+
+        public String[] getRecords() {
+            return records;
+        }
+
+        private byte[] encode() {
+            byte[][] recordBytes = new byte[MAX_PERSISTENCE][];
+            int size = STATE_FIELDS_SIZE + number.length;
+            for (int i = 0; i < MAX_PERSISTENCE; i++) {
+                recordBytes[i] = records[i] == null ? new byte[0] : records[i].getBytes(StandardCharsets.US_ASCII);
+                size += 4 + recordBytes[i].length;
+            }
+
+            ByteBuffer data = ByteBuffer.allocate(size);
+            data.putInt(maxPersistence).putInt(digits).putLong(countCheck).putLong(countCandidate).putLong(elapsed);
+            data.putInt(number.length).put(number);
+            for (byte[] record : recordBytes) {
+                data.putInt(record.length).put(record);
+            }
+            return data.array();
+        }
+
+        private static State decode(ByteBuffer data) {
+            int maxPersistence = data.getInt();
+            int digits = data.getInt();
+            long countCheck = data.getLong();
+            long countCandidate = data.getLong();
+            long elapsed = data.getLong();
+
+            byte[] number = new byte[data.getInt()];
+            data.get(number);
+
+            String[] records = new String[MAX_PERSISTENCE];
+            for (int i = 0; i < MAX_PERSISTENCE; i++) {
+                byte[] record = new byte[data.getInt()];
+                data.get(record);
+                if (record.length > 0) {
+                    records[i] = new String(record, StandardCharsets.US_ASCII);
+                }
+            }
+
+            return new State(number, digits, maxPersistence, countCheck, countCandidate, elapsed, records);
+        }
+    }
+
+    private Checkpoint(Path file, boolean resume) throws IOException {
+        this.resume = resume;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        slotSize = header.getInt(8);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || slotSize < INITIAL_SLOT_SIZE ||
+                HEADER_SIZE + 2L * slotSize > channel.size()) {
+            slotSize = INITIAL_SLOT_SIZE;
+            buffer = map();
+            for (int i = 0; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, slotSize);
+            buffer.force();
+        } else {
+            buffer = map();
+        }
+
+        sequence = Math.max(buffer.getLong(slotOffset(0)), buffer.getLong(slotOffset(1)));
+    }
+
+    private MappedByteBuffer map() throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + 2L * slotSize);
+    }
+
+    /**
+     * Open the checkpoint-file for reading and writing, the file is created if it does not exist yet.
+     *
+     * @param file The file for storing the checkpoints
+     * @param resume If {@link #load()} should return the state stored in the file
+     * @return The opened checkpoint
+     * @throws IOException If the file cannot be opened or mapped
+     */
+    public static Checkpoint open(Path file, boolean resume) throws IOException {
+        return new Checkpoint(file, resume);
+    }
+
+    /**
+     * Look for "--checkpoint &lt;file&gt;" and "--resume" in the given commandline arguments.
+     *
+     * @param args The commandline arguments
+     * @return The opened checkpoint or null if checkpointing was not requested
+     * @throws IOException If the file cannot be opened or mapped
+     */
+    public static Checkpoint fromArgs(String[] args) throws IOException {
+        String file = null;
+        boolean resume = false;
+        for (int i = 0; i < args.length; i++) {
+            if ("--resume".equals(args[i])) {
+                resume = true;
+            } else if ("--checkpoint".equals(args[i]) && i + 1 < args.length) {
+                file = args[++i];
+            }
+        }
+
+        if (file == null && !resume) {
+            return null;
+        }
+
+        return open(Paths.get(file == null ? DEFAULT_FILE : file), resume);
+    }
+
+    /**
+     * @return The last successfully written state or null if resuming was not requested
+     *      or no valid state is stored in the file.
+     */
+    public State load() {
+        if (!resume) {
+            return null;
+        }
+
+        int slot = -1;
+        long best = 0;
+        for (int i = 0; i < 2; i++) {
+            long seq = buffer.getLong(slotOffset(i));
+            if (seq > best && isValid(i)) {
+                best = seq;
+                slot = i;
+            }
+        }
+
+        if (slot == -1) {
+            return null;
+        }
+
+        int length = buffer.getInt(slotOffset(slot) + 12);
+        byte[] data = new byte[length];
+        buffer.get(slotOffset(slot) + SLOT_HEADER_SIZE, data);
+        return State.decode(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Store the given state if {@link #INTERVAL_MS} passed since the previous checkpoint.
+     *
+     * This is cheap enough to be called often from the loop of a search.
+     *
+     * @param state Provides the state to store, only invoked if a checkpoint is written
+     * @throws UncheckedIOException If the file cannot be enlarged for the state
+     */
+    public void saveIfDue(Supplier<State> state) {
+        long now = System.currentTimeMillis();
+        if (now - lastSave >= INTERVAL_MS) {
+            save(state.get());
+            lastSave = now;
+        }
+    }
+
+    /**
+     * Store the given state in the slot which does not hold the latest checkpoint
+     * and flush it to disk.
+     *
+     * @param state The state to store
+     * @throws UncheckedIOException If the file cannot be enlarged for the state
+     */
+    public void save(State state) {
+        byte[] data = state.encode();
+        if (SLOT_HEADER_SIZE + data.length > slotSize) {
+            grow(data);
+            return;
+        }
+
+        sequence++;
+        write((int) (sequence % 2), data);
+    }
+
+    /**
+     * Enlarge the slots so that the state fits, the old slots stay valid until the header is switched:
+     * the second slot of the new layout is behind the end of the old file and the first slot starts
+     * at the same offset as before.
+     */
+    private void grow(byte[] data) {
+        int size = slotSize;
+        while (SLOT_HEADER_SIZE + data.length > size) {
+            size *= 2;
+        }
+
+        try {
+            slotSize = size;
+            buffer = map();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not enlarge checkpoint to slots of " + size + " bytes", e);
+        }
+
+        // the state needs to go into the second slot, so it gets an odd sequence number
+        sequence += sequence % 2 == 0 ? 1 : 2;
+        write(1, data);
+
+        buffer.putInt(8, slotSize);
+        buffer.force();
+    }
+
+    private void write(int slot, byte[] data) {
+        int offset = slotOffset(slot);
+        buffer.putLong(offset, sequence);
+        buffer.putInt(offset + 12, data.length);
+        buffer.put(offset + SLOT_HEADER_SIZE, data);
+
+        buffer.putInt(offset + 8, checksum(slot, data.length));
+        buffer.force();
+    }
+
+    private boolean isValid(int slot) {
+        int length = buffer.getInt(slotOffset(slot) + 12);
+        return length >= STATE_FIELDS_SIZE && length <= slotSize - SLOT_HEADER_SIZE &&
+                buffer.getInt(slotOffset(slot) + 8) == checksum(slot, length);
+    }
+
+    private int slotOffset(int slot) {
+        return HEADER_SIZE + slot * slotSize;
+    }
+
+    private int checksum(int slot, int length) {
+        int offset = slotOffset(slot);
+
+        CRC32 crc = new CRC32();
+        // sequence, length and state, but not the checksum itself
+        byte[] data = new byte[8 + 4 + length];
+        buffer.get(offset, data, 0, 8);
+        buffer.get(offset + 12, data, 8, 4 + length);
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
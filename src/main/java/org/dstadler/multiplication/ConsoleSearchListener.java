@@ -0,0 +1,66 @@
+package org.dstadler.multiplication;
+
+import java.math.BigInteger;
+
+/**
+ * Prints records and progress of a search to stdout.
+ *
+ * Progress is printed at most once per interval to not flood the console.
+ */
+public class ConsoleSearchListener implements SearchListener {
+    public static final long DEFAULT_INTERVAL_MS = 10_000;
+
+    private final long intervalMillis;
+    private final int radix;
+    private long lastProgress = Long.MIN_VALUE;
+
+    public ConsoleSearchListener() {
+        this(DEFAULT_INTERVAL_MS);
+    }
+
+    /**
+     * @param intervalMillis How often progress is printed at most
+     */
+    public ConsoleSearchListener(long intervalMillis) {
+        this(intervalMillis, 10);
+    }
+
+    /**
+     * @param intervalMillis How often progress is printed at most
+     * @param radix The base in which the numbers are written
+     */
+    public ConsoleSearchListener(long intervalMillis, int radix) {
+        this.intervalMillis = intervalMillis;
+        this.radix = radix;
+    }
+
+    @Override
+    public void recordFound(int persistence, String number, SearchCounters counters) {
+        System.out.printf("Found persistence %2d for %s after %,dms%n",
+                persistence, number, counters.getElapsedMillis());
+    }
+
+    @Override
+    public void progress(String number, int maxPersistence, SearchCounters counters) {
+        long now = System.currentTimeMillis();
+        if (lastProgress != Long.MIN_VALUE && now - lastProgress < intervalMillis) {
+            return;
+        }
+        lastProgress = now;
+
+        long duration = (now - counters.getStart())/1000;
+        BigInteger bigNumber = number.isEmpty() ? BigInteger.ZERO : new BigInteger(number, radix);
+        BigInteger nPerSec = duration == 0 ? BigInteger.ZERO : bigNumber.divide(BigInteger.valueOf(duration));
+
+        // only decimal numbers are grouped, others are printed in their base
+        String formatted = radix == 10 ? String.format("%,d", bigNumber) : number;
+        System.out.printf("%,10ds: Testing(%,3d): %30s, max: %2d, n/sec: %,28d, candidates: %,20d, checked: %,15d%n",
+                duration, number.length(), formatted, maxPersistence, nPerSec,
+                counters.getCandidates(), counters.getChecks());
+    }
+
+    @Override
+    public void finished(int maxPersistence, SearchCounters counters) {
+        System.out.println("Had max persistence of " + maxPersistence);
+    }
+}
@@ -0,0 +1,154 @@
+package org.dstadler.multiplication;
+
+/**
+ * Computes the multiplicative persistence without BigInteger by keeping the
+ * product in limbs of base 10^9, i.e. 9 decimal digits per int.
+ *
+ * Multiplying by a digit and reading out the decimal digits of the product
+ * are both linear in the number of digits, while {@link MathUtils#getPersistence(byte[])}
+ * needs a quadratic conversion from binary to decimal on every step.
+ *
+ * Several digits are multiplied into one long before multiplying the limbs
+ * to reduce the number of passes over the product.
+ *
+ * The buffers are re-used across calls, so an instance is not thread-safe.
+ * Once the buffers are large enough, computing persistence does not allocate
+ * any memory, use {@link #forCurrentThread()} to get an instance per thread.
+ */
+public class DecimalLimbKernel {
+    private static final ThreadLocal<DecimalLimbKernel> KERNELS = ThreadLocal.withInitial(DecimalLimbKernel::new);
+
+    private static final int BASE = 1_000_000_000;
+    private static final int DIGITS_PER_LIMB = 9;
+
+    // a limb times such a multiplier plus carry still fits into a long
+    private static final long MAX_MULTIPLIER = 400_000_000L;
+
+    private int[] product = new int[16];
+    private int size;
+
+    private int[] next = new int[16];
+    private int nextSize;
+
+    /**
+     * @return An instance which is only used by the current thread, so its buffers
+     *      are re-used by all calls from this thread.
+     */
+    public static DecimalLimbKernel forCurrentThread() {
+        return KERNELS.get();
+    }
+
+    /**
+     * Compute the multiplicative persistence of a number, returns the same
+     * as {@link MathUtils#getPersistence(byte[])}.
+     *
+     * @param input The number as a byte array, lower digits at the beginning, unused entries are "-1"
+     * @return How many times the multiplicative digital root can be computed on this number.
+     */
+    public int getPersistence(byte[] input) {
+        nextSize = 1;
+        next[0] = 1;
+
+        long multiplier = 1;
+        for (byte digit : input) {
+            if (digit == -1) {
+                break;
+            }
+            if (digit == 0) {
+                return 1;
+            }
+
+            multiplier *= digit;
+            if (multiplier >= MAX_MULTIPLIER) {
+                multiplyNext(multiplier);
+                multiplier = 1;
+            }
+        }
+        multiplyNext(multiplier);
+        swap();
+
+        int persistence = 1;
+
+        // stop when we have reached a single-digit number
+        while (size > 1 || product[0] >= 10) {
+            persistence++;
+
+            // a zero digit leads to a product of zero
+            if (!multiplyDigits()) {
+                return persistence;
+            }
+            swap();
+        }
+
+        return persistence;
+    }
+
+    /**
+     * Compute the product of the decimal digits of the current product.
+     *
+     * @return false if one of the digits is zero
+     */
+    private boolean multiplyDigits() {
+        nextSize = 1;
+        next[0] = 1;
+
+        long multiplier = 1;
+        for (int i = 0; i < size; i++) {
+            int limb = product[i];
+
+            // only the highest limb has no leading zeros
+            boolean highest = i == size - 1;
+            for (int j = 0; highest ? limb > 0 : j < DIGITS_PER_LIMB; j++) {
+                int digit = limb % 10;
+                if (digit == 0) {
+                    return false;
+                }
+                limb /= 10;
+
+                multiplier *= digit;
+                if (multiplier >= MAX_MULTIPLIER) {
+                    multiplyNext(multiplier);
+                    multiplier = 1;
+                }
+            }
+        }
+        multiplyNext(multiplier);
+
+        return true;
+    }
+
+    private void multiplyNext(long multiplier) {
+        if (multiplier == 1) {
+            return;
+        }
+
+        long carry = 0;
+        for (int i = 0; i < nextSize; i++) {
+            long value = next[i] * multiplier + carry;
+            next[i] = (int) (value % BASE);
+            carry = value / BASE;
+        }
+
+        while (carry > 0) {
+            if (nextSize == next.length) {
+                int[] grown = new int[next.length * 2];
+                System.arraycopy(next, 0, grown, 0, nextSize);
+                next = grown;
+            }
+            next[nextSize++] = (int) (carry % BASE);
+            carry /= BASE;
+        }
+    }
+
+    private void swap() {
+        int[] tmp = product;
+        product = next;
+        next = tmp;
+        size = nextSize;
+
+        // the product of the digits never has more limbs than the number itself
+        if (next.length < product.length) {
+            next = new int[product.length];
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package org.dstadler.multiplication;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Models a number only by how often each of the digits 2 to 9 occurs in it.
+ *
+ * As the product of the digits does not depend on the order of the digits,
+ * all permutations of a number share the same persistence and only the
+ * smallest one, i.e. the one with digits in ascending order, is of interest.
+ *
+ * {@link #next()} enumerates these digit-count vectors in increasing numeric
+ * order of the smallest number they represent and directly skips all vectors
+ * which are rejected by the rules of {@link MultiplicativeDigitalRootByteArray#candidate(byte[])},
+ * so no time is spent on incrementing numbers digit by digit and throwing
+ * away most of them afterwards.
+ *
+ * The product of the digits is computed from the exponents of 2, 3, 5 and 7
+ * instead of multiplying digit by digit.
+ */
+public class DigitHistogram {
+    // index is the digit, only the entries 2 to 9 are used
+    private final int[] counts = new int[10];
+    private final int maxLowDigits;
+    private int length = 0;
+
+    /**
+     * Construct an empty histogram which enumerates all numbers accepted
+     * by the candidate-rules.
+     */
+    public DigitHistogram() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Construct an empty histogram.
+     *
+     * @param maxLowDigits How many of the digits 2 to 6 are allowed in a number, all
+     *                     other digits need to be 7, 8 or 9. Use 2 to get the same
+     *                     restriction as the increment of {@link MultiplicativeDigitalRootByteArray}
+     *                     or {@link Integer#MAX_VALUE} to not restrict the numbers beyond the
+     *                     candidate-rules.
+     */
+    public DigitHistogram(int maxLowDigits) {
+        if (maxLowDigits < 0) {
+            throw new IllegalArgumentException("Invalid number of low digits: " + maxLowDigits);
+        }
+        this.maxLowDigits = maxLowDigits;
+    }
+
+    /**
+     * Move to the smallest number with the given number of digits which starts
+     * with the given digits and is accepted by the candidate-rules.
+     *
+     * If there is no such number, this moves to the next larger candidate, so
+     * {@link #startsWith(String)} and {@link #getLength()} should be checked afterwards.
+     *
+     * @param length The number of digits
+     * @param prefix The leading digits in ascending order, only digits 2 to 9, not longer than length
+     */
+    public void start(int length, String prefix) {
+        if (prefix.length() > length) {
+            throw new IllegalArgumentException("Prefix " + prefix + " is longer than " + length + " digits");
+        }
+
+        Arrays.fill(counts, 0);
+        this.length = length;
+
+        // fill up with the last digit of the prefix to get the smallest number
+        int last = 2;
+        for (char c : prefix.toCharArray()) {
+            int digit = c - 0x30;
+            if (digit < last || digit > 9) {
+                throw new IllegalArgumentException("Prefix " + prefix + " needs ascending digits 2 to 9");
+            }
+            counts[digit]++;
+            last = digit;
+        }
+        counts[last] += length - prefix.length();
+
+        skipToCandidate();
+    }
+
+    /**
+     * Move to the number with the given digit counts, used by {@link CandidateRanking}.
+     *
+     * @param counts How often each digit occurs, index is the digit
+     * @param length The number of digits, i.e. the sum of the counts
+     */
+    void set(int[] counts, int length) {
+        System.arraycopy(counts, 0, this.counts, 0, this.counts.length);
+        this.length = length;
+    }
+
+    /**
+     * @param prefix The leading digits in ascending order
+     * @return true if the smallest number with the current digit counts starts with the given digits.
+     */
+    public boolean startsWith(String prefix) {
+        int digit = 2;
+        int used = 0;
+        for (char c : prefix.toCharArray()) {
+            while (digit <= 9 && used == counts[digit]) {
+                digit++;
+                used = 0;
+            }
+            if (digit > 9 || c - 0x30 != digit) {
+                return false;
+            }
+            used++;
+        }
+        return true;
+    }
+
+    /**
+     * Move to the next digit-count vector which should be checked, i.e.
+     * the next larger number with digits in ascending order which is
+     * accepted by the candidate-rules.
+     *
+     * Starting from an empty histogram, this produces 2, 3, 4, ..., 9, 24, 26, 27, ...
+     */
+    public void next() {
+        // find the highest digit below 9 which is used, it is
+        // the right-most digit which can still be incremented
+        int digit = 8;
+        while (digit >= 2 && counts[digit] == 0) {
+            digit--;
+        }
+
+        if (digit < 2) {
+            // only 9s or empty, continue with one more digit, all set to 2
+            Arrays.fill(counts, 0);
+            length++;
+            counts[2] = length;
+        } else {
+            // ...d99..9 becomes ...(d+1)(d+1)..(d+1)
+            int nines = counts[9];
+            counts[9] = 0;
+            counts[digit]--;
+            counts[digit + 1] += nines + 1;
+        }
+
+        skipToCandidate();
+    }
+
+    /**
+     * Adjust the counts to the smallest vector which is not smaller than the
+     * current one and is accepted by the candidate-rules.
+     */
+    private void skipToCandidate() {
+        while (true) {
+            if (counts[2] >= 2 || (counts[2] == 1 && counts[3] > 0)) {
+                // "22" and "23" could be replaced by "4" and "6", continue at "244..4"
+                fill(2, 4);
+            } else if (counts[2] == 0 && counts[3] >= 2) {
+                // "33" could be replaced by "9", continue at "344..4"
+                fill(3, 4);
+            } else if (counts[2] == 1 && counts[5] > 0) {
+                // two and five together cause a "10", continue at "244..466..6"
+                int fours = counts[4];
+                Arrays.fill(counts, 0);
+                counts[2] = 1;
+                counts[4] = fours;
+                counts[6] = length - 1 - fours;
+            } else if (getLowDigits() > maxLowDigits) {
+                // keep the allowed number of low digits and continue with 7s
+                int remaining = maxLowDigits;
+                for (int d = 2; d <= 6; d++) {
+                    counts[d] = Math.min(counts[d], remaining);
+                    remaining -= counts[d];
+                }
+                counts[7] = length - maxLowDigits;
+                counts[8] = 0;
+                counts[9] = 0;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void fill(int first, int rest) {
+        Arrays.fill(counts, 0);
+        counts[first] = 1;
+        counts[rest] = length - 1;
+    }
+
+    private int getLowDigits() {
+        return counts[2] + counts[3] + counts[4] + counts[5] + counts[6];
+    }
+
+    /**
+     * @param digit The digit, 0 to 9
+     * @return How often the given digit occurs in the current number.
+     */
+    public int getCount(int digit) {
+        return counts[digit];
+    }
+
+    /**
+     * @return The number of digits of the current number.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return The exponent of 2 in the product of the digits.
+     */
+    public int getExponentOfTwo() {
+        return counts[2] + 2*counts[4] + counts[6] + 3*counts[8];
+    }
+
+    /**
+     * @return The exponent of 3 in the product of the digits.
+     */
+    public int getExponentOfThree() {
+        return counts[3] + counts[6] + 2*counts[9];
+    }
+
+    /**
+     * @return The exponent of 5 in the product of the digits.
+     */
+    public int getExponentOfFive() {
+        return counts[5];
+    }
+
+    /**
+     * @return The exponent of 7 in the product of the digits.
+     */
+    public int getExponentOfSeven() {
+        return counts[7];
+    }
+
+    /**
+     * Compute the product of the digits, i.e. the multiplicative digital root
+     * of the current number as 2^a * 3^b * 5^c * 7^d.
+     *
+     * @return The product of all digits of the current number.
+     */
+    public BigInteger getProduct() {
+        return MathUtils.getProduct(getExponentOfTwo(), getExponentOfThree(),
+                getExponentOfFive(), getExponentOfSeven());
+    }
+
+    /**
+     * Store the current number in the given byte-array with lower digits at the beginning
+     * and a terminating "-1".
+     *
+     * @param number The array for storing the digits of the number in reverse order.
+     * @throws ArrayIndexOutOfBoundsException if the byte-array is not large enough to
+     *          hold all digits
+     */
+    public void toByteArray(byte[] number) {
+        int pos = 0;
+        for (int digit = 9; digit >= 2; digit--) {
+            for (int i = 0; i < counts[digit]; i++) {
+                number[pos++] = (byte) digit;
+            }
+        }
+        number[pos] = -1;
+    }
+
+    /**
+     * @return The smallest number with the current digit counts, i.e. all digits in ascending order.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(length);
+        for (int digit = 2; digit <= 9; digit++) {
+            for (int i = 0; i < counts[digit]; i++) {
+                builder.append((char)(digit + 0x30));
+            }
+        }
+        return builder.toString();
+    }
+}
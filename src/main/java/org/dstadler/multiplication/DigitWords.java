@@ -0,0 +1,156 @@
+package org.dstadler.multiplication;
+
+import static org.dstadler.multiplication.MathUtils.MAX_DIGITS;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Checks on numbers stored as byte-arrays with digits in reverse order which look at
+ * 8 digits at once by reading them as one long ("SIMD within a register").
+ *
+ * All bytes of a long are compared with a few arithmetic operations, the resulting
+ * high bit of each byte tells if the digit matched, so there is no branch per digit.
+ */
+class DigitWords {
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    private static final long LOWS = 0x7F7F7F7F7F7F7F7FL;
+
+    private DigitWords() {
+    }
+
+    /**
+     * @return A word with the high bit set in every byte which is zero and all other bits cleared
+     */
+    static long zeroBytes(long word) {
+        // the lower 7 bits plus 0x7F overflow into the high bit if any of them is set,
+        // this never carries into the next byte
+        return ~(((word & LOWS) + LOWS) | word) & HIGHS;
+    }
+
+    /**
+     * @return A word with the high bit set in every byte which is equal to the given value
+     */
+    static long equalBytes(long word, int value) {
+        return zeroBytes(word ^ (ONES * (value & 0xFF)));
+    }
+
+    /**
+     * The same as {@link MultiplicativeDigitalRootByteArray#candidate(byte[])}.
+     *
+     * @param number The current number as byte-array with digits in reverse order
+     * @return true if this number can be checked for persistence or false if
+     *      it should be skipped.
+     */
+    static boolean candidate(byte[] number) {
+        int limit = Math.min(number.length, MAX_DIGITS);
+
+        int prev = 9;
+        int twos = 0, threes = 0, fives = 0;
+        int i = 0;
+        for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+            long word = (long) LONGS.get(number, i);
+
+            // only the digits before the "-1" are looked at
+            long end = equalBytes(word, -1);
+            int count = Long.numberOfTrailingZeros(end) >>> 3;
+            long valid = count == Long.BYTES ? -1L : (1L << (count << 3)) - 1;
+
+            // not a candidate if digits are not ordered: with the high bit set, subtracting the following
+            // digit keeps the high bit only if it is not larger, borrows only affect bytes which are not looked at
+            long ordered = (word | HIGHS) - (word >>> 8);
+            if (((~ordered & (valid >>> 8) & HIGHS) != 0) | (count > 0 && (int) (word & 0xFF) > prev)) {
+                return false;
+            }
+
+            // only count 2, 3 and 5 if there is any digit below 6, usually only the first few are
+            long low = ~((word | HIGHS) - ONES * 6) & valid & HIGHS;
+            if (low != 0) {
+                twos += Long.bitCount(equalBytes(word, 2) & valid);
+                threes += Long.bitCount(equalBytes(word, 3) & valid);
+                fives += Long.bitCount(equalBytes(word, 5) & valid);
+                if (!allowed(twos, threes, fives)) {
+                    return false;
+                }
+            }
+
+            if (end != 0) {
+                return true;
+            }
+
+            prev = (int) (word >>> 56);
+        }
+
+        for (; i < limit; i++) {
+            byte b = number[i];
+            if (b == -1) {
+                return true;
+            }
+
+            if (b > prev) {
+                return false;
+            }
+
+            if (b == 2) {
+                twos++;
+            } else if (b == 3) {
+                threes++;
+            } else if (b == 5) {
+                fives++;
+            }
+            if (!allowed(twos, threes, fives)) {
+                return false;
+            }
+
+            prev = b;
+        }
+
+        throw new IllegalStateException("Exceeded max number of digits: " + MAX_DIGITS);
+    }
+
+    private static boolean allowed(int twos, int threes, int fives) {
+        // "2" and "2" could be replaced by "4" and would give a smaller number
+        // "3" and "3" can be replaced by "9" and this would give a smaller number
+        // "2" and "3" can be replaced by "6" and this would give a smaller number
+        // two and five together cause a "10" and thus are not more than 2 steps to get to root "0"
+        return twos <= 1 && threes <= 1 && (twos == 0 || (threes == 0 && fives == 0));
+    }
+
+    /**
+     * @param number The number as a byte array, lower digits at the beginning, unused entries are "-1"
+     * @return true if one of the digits before the first "-1" is zero
+     */
+    static boolean containsZero(byte[] number) {
+        int i = 0;
+        for (; i + Long.BYTES <= number.length; i += Long.BYTES) {
+            long word = (long) LONGS.get(number, i);
+
+            long zeros = zeroBytes(word);
+            long end = equalBytes(word, -1);
+            if (end != 0) {
+                // only zeros below the lowest "-1" count
+                return (zeros & ((end & -end) - 1)) != 0;
+            }
+            if (zeros != 0) {
+                return true;
+            }
+        }
+
+        for (; i < number.length; i++) {
+            byte b = number[i];
+            if (b == -1) {
+                return false;
+            }
+
+            if (b == 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -1,9 +1,10 @@
 package org.dstadler.multiplication;
 
 import java.math.BigInteger;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Utilities for computing multiplicative persistence and multiplicative digital root
@@ -14,6 +15,9 @@ import java.util.List;
 public class MathUtils {
     public static final int MAX_DIGITS = 100;
 
+    // conversion of numbers with more bits is split across threads, around 80.000 digits
+    private static final int PARALLEL_THRESHOLD_BITS = 1 << 18;
+
     // Pre-compute digits from 0-9 to not having to construct them always
     private static final BigInteger[] DIGITS = new BigInteger[10];
     static {
@@ -22,6 +26,43 @@ public class MathUtils {
         }
     }
 
+    // products of the digits of all numbers with 4 digits including leading zeros,
+    // so a zero digit anywhere in the chunk leads to 0
+    private static final int CHUNK_DIGITS = 4;
+    private static final short[] CHUNK_PRODUCTS = new short[10_000];
+    static {
+        for (int i = 0; i < CHUNK_PRODUCTS.length; i++) {
+            int product = 1;
+            for (int n = i, d = 0; d < CHUNK_DIGITS; d++, n /= 10) {
+                product *= n % 10;
+            }
+            CHUNK_PRODUCTS[i] = (short) product;
+        }
+    }
+
+    // products of the digits of all numbers below 10000 without leading zeros, used
+    // for the highest digits of a long, 0 itself has the product 0
+    private static final short[] LEADING_PRODUCTS = new short[10_000];
+    static {
+        for (int i = 1; i < LEADING_PRODUCTS.length; i++) {
+            int product = 1;
+            for (int n = i; n > 0; n /= 10) {
+                product *= n % 10;
+            }
+            LEADING_PRODUCTS[i] = (short) product;
+        }
+    }
+
+    // how many chunks of 18 digits are looked at for a zero before converting the rest at once,
+    // only about one in 2000 numbers has no zero in the lowest 72 digits
+    private static final int STREAMED_CHUNKS = 4;
+
+    private static final double LOG10_OF_2 = Math.log10(2);
+    private static final double LOG2_OF_10 = Math.log(10) / Math.log(2);
+
+    // multiplying by one more chunk of 4 nines does not overflow a long below this value
+    private static final long MAX_CHUNKS_PRODUCT = Long.MAX_VALUE / 6561;
+
     /**
      * Compute the multiplicative persistence of a number, see
      * also https://en.wikipedia.org/wiki/Persistence_of_a_number and
@@ -75,24 +116,278 @@ public class MathUtils {
 
         int persistence = 1;
         while(true) {
+            // usually the product fits into a long, then the rest of the chain does as well
+            long small = getSmallMultiplicativeDigitalRoot(input);
+            if (small >= 0) {
+                return small < 10 ? persistence : persistence + getPersistence(small);
+            }
+
             BigInteger product = getMultiplicativeDigitalRoot(input);
 
             //System.out.println(persistence + ": Result of " + input + ": " + product);
 
+            // the product did not fit into a long, so it has more than one digit
+            persistence++;
+
+            // the next product is 0, this is usually found in the lowest digits already
+            if (!toByteArrayWithoutZero(input, product)) {
+                return persistence;
+            }
+        }
+    }
+
+    /**
+     * Compute the multiplicative persistence of a number which fits into a long
+     * without any allocation, the product of up to 19 digits is at most 9^19 and
+     * thus also fits into a long.
+     *
+     * E.g. 10 =&gt; 1, 25 =&gt; 2, 39 =&gt; 3, ...
+     *
+     * @param number The number, not negative
+     * @return How many times the multiplicative digital root can be computed on this number.
+     */
+    public static int getPersistence(long number) {
+        if (number < 0) {
+            throw new IllegalArgumentException("Number cannot be negative, but had: " + number);
+        }
+
+        int persistence = 1;
+        while (true) {
+            number = getMultiplicativeDigitalRoot(number);
+
             // stop when we have reached a single-digit number
-            if(product.compareTo(BigInteger.TEN) < 0) {
+            if (number < 10) {
                 return persistence;
             }
 
             persistence++;
+        }
+    }
+
+    /**
+     * Compute the multiplicative persistence of many numbers at once, e.g. for
+     * verifying a range of numbers, see {@link #getPersistence(long)}.
+     *
+     * @param numbers The numbers, not negative
+     * @return The persistence of each of the numbers
+     */
+    public static int[] getPersistence(long[] numbers) {
+        int[] persistences = new int[numbers.length];
+        getPersistence(numbers, persistences);
+        return persistences;
+    }
+
+    /**
+     * Same as {@link #getPersistence(long[])}, but stores the results in the
+     * given array, so repeated calls do not allocate.
+     *
+     * @param numbers The numbers, not negative
+     * @param persistences Receives the persistence of each of the numbers, at least as long as numbers
+     */
+    public static void getPersistence(long[] numbers, int[] persistences) {
+        if (persistences.length < numbers.length) {
+            throw new IllegalArgumentException("Need room for " + numbers.length + " results, but had: " + persistences.length);
+        }
+
+        for (int i = 0; i < numbers.length; i++) {
+            persistences[i] = getPersistence(numbers[i]);
+        }
+    }
+
+    /**
+     * Compute the multiplicative persistence of a number without allocating
+     * memory, returns the same as {@link #getPersistence(byte[])}.
+     *
+     * The chain of products is computed in the buffers of a {@link DecimalLimbKernel}
+     * which is kept per thread.
+     *
+     * @param input The number as a byte array, lower digits at the beginning, unused entries are "-1"
+     * @return How many times the multiplicative digital root can be computed on this number.
+     */
+    public static int getPersistenceNoAlloc(byte[] input) {
+        return DecimalLimbKernel.forCurrentThread().getPersistence(input);
+    }
+
+    /**
+     * Compute the multiplicative persistence of the given number and look up or store
+     * the result in the given cache by the exponents of the product of its digits.
+     *
+     * @param input The number as a byte array, lower digits at the beginning, unused entries are "-1"
+     * @param cache The cache for persistence by product of digits
+     * @return How many times the multiplicative digital root can be computed on this number.
+     */
+    public static int getPersistence(byte[] input, PersistenceCache cache) {
+        int twos = 0, threes = 0, fives = 0, sevens = 0;
+        for (byte digit : input) {
+            switch (digit) {
+                case -1:
+                    return getPersistence(twos, threes, fives, sevens, cache);
+                case 0:
+                    return 1;
+                case 2:
+                    twos++;
+                    break;
+                case 3:
+                    threes++;
+                    break;
+                case 4:
+                    twos += 2;
+                    break;
+                case 5:
+                    fives++;
+                    break;
+                case 6:
+                    twos++;
+                    threes++;
+                    break;
+                case 7:
+                    sevens++;
+                    break;
+                case 8:
+                    twos += 3;
+                    break;
+                case 9:
+                    threes += 2;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return getPersistence(twos, threes, fives, sevens, cache);
+    }
+
+    /**
+     * Compute the multiplicative persistence of the smallest number with
+     * the digit counts of the given histogram, see
+     * also https://en.wikipedia.org/wiki/Persistence_of_a_number
+     *
+     * The first product is computed from the exponents of 2, 3, 5 and 7
+     * and thus does not depend on the number of digits.
+     *
+     * @param histogram The number as counts of its digits
+     * @return How many times the multiplicative digital root can be computed on this number.
+     */
+    public static int getPersistence(DigitHistogram histogram) {
+        return getPersistence(histogram.getExponentOfTwo(), histogram.getExponentOfThree(),
+                histogram.getExponentOfFive(), histogram.getExponentOfSeven());
+    }
+
+    /**
+     * Compute the multiplicative persistence of the smallest number with
+     * the digit counts of the given histogram and look up or store the result
+     * in the given cache.
+     *
+     * @param histogram The number as counts of its digits
+     * @param cache The cache for persistence by product of digits
+     * @return How many times the multiplicative digital root can be computed on this number.
+     */
+    public static int getPersistence(DigitHistogram histogram, PersistenceCache cache) {
+        return getPersistence(histogram.getExponentOfTwo(), histogram.getExponentOfThree(),
+                histogram.getExponentOfFive(), histogram.getExponentOfSeven(), cache);
+    }
+
+    /**
+     * Compute the multiplicative persistence of a number without zeros where the
+     * product of the digits is 2^twos * 3^threes * 5^fives * 7^sevens.
+     *
+     * E.g. (0, 3, 0, 0) =&gt; 3 as for 39 the product is 27
+     *
+     * @param twos The exponent of 2 in the product of the digits
+     * @param threes The exponent of 3 in the product of the digits
+     * @param fives The exponent of 5 in the product of the digits
+     * @param sevens The exponent of 7 in the product of the digits
+     * @return How many times the multiplicative digital root can be computed on such a number.
+     */
+    public static int getPersistence(int twos, int threes, int fives, int sevens) {
+        // two and five together cause a "10" and thus the next product is "0"
+        if (fives > 0 && twos > 0) {
+            return 2;
+        }
+
+        // stay with long as long as the product fits
+        long small = getSmallProduct(twos, threes, fives, sevens);
+        if (small >= 0) {
+            return small < 10 ? 1 : 1 + getPersistence(small);
+        }
+
+        BigInteger product = getProduct(twos, threes, fives, sevens);
+
+        // stop when we have reached a single-digit number
+        if(product.compareTo(BigInteger.TEN) < 0) {
+            return 1;
+        }
+
+        byte[] number = new byte[log10(product) + 2];
+        if (!toByteArrayWithoutZero(number, product)) {
+            return 2;
+        }
+
+        return 1 + getPersistence(number);
+    }
+
+    /**
+     * Compute 2^twos * 3^threes * 5^fives * 7^sevens.
+     *
+     * @param twos The exponent of 2
+     * @param threes The exponent of 3
+     * @param fives The exponent of 5
+     * @param sevens The exponent of 7
+     * @return The resulting product
+     */
+    public static BigInteger getProduct(int twos, int threes, int fives, int sevens) {
+        return DIGITS[3].pow(threes)
+                .multiply(DIGITS[5].pow(fives))
+                .multiply(DIGITS[7].pow(sevens))
+                .shiftLeft(twos);
+    }
+
+    /**
+     * @return 2^twos * 3^threes * 5^fives * 7^sevens or -1 if it does not fit into a long
+     */
+    private static long getSmallProduct(int twos, int threes, int fives, int sevens) {
+        if (twos >= Long.SIZE - 1) {
+            return -1;
+        }
+
+        long product = 1L << twos;
+        for (int i = 0; i < threes && product >= 0; i++) {
+            product = multiplyOrOverflow(product, 3);
+        }
+        for (int i = 0; i < fives && product >= 0; i++) {
+            product = multiplyOrOverflow(product, 5);
+        }
+        for (int i = 0; i < sevens && product >= 0; i++) {
+            product = multiplyOrOverflow(product, 7);
+        }
+        return product;
+    }
+
+    /**
+     * @return a * b for two numbers which are not negative or -1 if the product does not fit into a long
+     */
+    private static long multiplyOrOverflow(long a, long b) {
+        long low = a * b;
+        return Math.multiplyHigh(a, b) != 0 || low < 0 ? -1 : low;
+    }
 
-            toByteArray(input, product);
+    private static int getPersistence(int twos, int threes, int fives, int sevens, PersistenceCache cache) {
+        int persistence = cache.get(twos, threes, fives, sevens);
+        if (persistence == -1) {
+            persistence = getPersistence(twos, threes, fives, sevens);
+            cache.put(twos, threes, fives, sevens, persistence);
         }
+
+        return persistence;
     }
 
     /**
      * Convert the given BigInteger into a byte-array
      *
+     * The conversion splits the number recursively by cached powers of
+     * ten 10^(18 * 2^k), so it is sub-quadratic, parts which fit into a long are
+     * converted directly. Very large numbers are split across threads.
+     *
      * @param number The array for storing the digits of the number in reverse order.
      *               The byte-array needs to be large enough to hold all bytes
      * @param bigNumber The number to convert to the byte-array
@@ -100,15 +395,140 @@ public class MathUtils {
      *          hold all digits of the bigNumber
      */
     public static void toByteArray(byte[] number, BigInteger bigNumber) {
-        int i = 0;
-        int log10 = log10(bigNumber);
+        // find the smallest level where the number is below 10^(18 * 2^level)
+        int level = 0;
+        while (bigNumber.compareTo(PowersOfTen.getSquare(level)) >= 0) {
+            level++;
+        }
+
+        int digits = toByteArray(number, 0, bigNumber, level, false);
+        number[digits] = -1;
+    }
+
+    /**
+     * Same as {@link #toByteArray(byte[], BigInteger)}, but stops as soon as a zero digit is found.
+     *
+     * Nearly all large numbers contain a zero, so the lowest digits are produced first, 18 at a time
+     * via a division by 10^18 which only takes linear time. Only if these do not contain a zero, the
+     * remaining digits are converted at once.
+     *
+     * @param number The array for storing the digits of the number in reverse order,
+     *               the content is undefined if the number contains a zero
+     * @param bigNumber The number to convert to the byte-array
+     * @return False if the number contains a zero digit, true if it was converted completely
+     */
+    static boolean toByteArrayWithoutZero(byte[] number, BigInteger bigNumber) {
+        BigInteger remaining = bigNumber;
+        int offset = 0;
+        for (int chunk = 0; chunk < STREAMED_CHUNKS; chunk++) {
+            if (remaining.bitLength() < Long.SIZE) {
+                // the highest digits, without leading zeros
+                long value = remaining.longValue();
+                do {
+                    byte digit = (byte) (value % 10);
+                    if (digit == 0) {
+                        return false;
+                    }
+                    number[offset++] = digit;
+                    value /= 10;
+                } while (value > 0);
+
+                number[offset] = -1;
+                return true;
+            }
+
+            BigInteger[] divideAndRemainder = remaining.divideAndRemainder(PowersOfTen.getSquare(0));
+            long value = divideAndRemainder[1].longValue();
 
-        for(; i <= log10; i++) {
-            BigInteger[] divideAndRemainder = bigNumber.divideAndRemainder(BigInteger.TEN);
-            bigNumber = divideAndRemainder[0];
-            number[i] = (byte)(divideAndRemainder[1].toString().charAt(0)-0x30);
+            // there are higher digits, so all 18 digits of the chunk belong to the number
+            if (containsZero(value, PowersOfTen.LONG_DIGITS)) {
+                return false;
+            }
+            for (int i = 0; i < PowersOfTen.LONG_DIGITS; i++) {
+                number[offset++] = (byte) (value % 10);
+                value /= 10;
+            }
+
+            remaining = divideAndRemainder[0];
+        }
+
+        // dividing further would be quadratic, convert the rest at once
+        int level = 0;
+        while (remaining.compareTo(PowersOfTen.getSquare(level)) >= 0) {
+            level++;
+        }
+        int digits = toByteArray(number, offset, remaining, level, false);
+        number[offset + digits] = -1;
+
+        return !containsZero(number);
+    }
+
+    /**
+     * Write the digits of the given value which is below 10^(18 * 2^level) at the given offset.
+     *
+     * @param pad If the digits should be padded with zeros to 18 * 2^level digits
+     * @return The number of digits written
+     */
+    private static int toByteArray(byte[] number, int offset, BigInteger value, int level, boolean pad) {
+        if (level == 0) {
+            long remaining = value.longValue();
+            int i = 0;
+            do {
+                number[offset + i] = (byte) (remaining % 10);
+                remaining /= 10;
+                i++;
+            } while (remaining > 0);
+
+            if (pad) {
+                for (; i < PowersOfTen.LONG_DIGITS; i++) {
+                    number[offset + i] = 0;
+                }
+            }
+            return i;
+        }
+
+        BigInteger[] divideAndRemainder = value.divideAndRemainder(PowersOfTen.getSquare(level - 1));
+        BigInteger high = divideAndRemainder[0];
+        BigInteger low = divideAndRemainder[1];
+
+        // leading zeros are only written if requested
+        if (!pad && high.signum() == 0) {
+            return toByteArray(number, offset, low, level - 1, false);
+        }
+
+        int lowDigits = PowersOfTen.LONG_DIGITS << (level - 1);
+        if (value.bitLength() > PARALLEL_THRESHOLD_BITS) {
+            DigitsTask highTask = new DigitsTask(number, offset + lowDigits, high, level - 1, pad);
+            DigitsTask lowTask = new DigitsTask(number, offset, low, level - 1, true);
+            ForkJoinTask.invokeAll(highTask, lowTask);
+            return lowDigits + highTask.join();
+        }
+
+        toByteArray(number, offset, low, level - 1, true);
+        return lowDigits + toByteArray(number, offset + lowDigits, high, level - 1, pad);
+    }
+
+    private static class DigitsTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] number;
+        private final int offset;
+        private final BigInteger value;
+        private final int level;
+        private final boolean pad;
+
+        private DigitsTask(byte[] number, int offset, BigInteger value, int level, boolean pad) {
+            this.number = number;
+            this.offset = offset;
+            this.value = value;
+            this.level = level;
+            this.pad = pad;
+        }
+
+        @Override
+        protected Integer compute() {
+            return toByteArray(number, offset, value, level, pad);
         }
-        number[i] = -1;
     }
 
     /**
@@ -172,91 +592,148 @@ public class MathUtils {
      * @return The multiplicative root of the given number.
      */
     public static BigInteger getMultiplicativeDigitalRoot(byte[] input) {
-        // shortcut this calculation
-        if(containsZero(input)) {
-            return BigInteger.ZERO;
-        }
-
         BigInteger product = BigInteger.ONE;
-        for (byte digit: input) {
-            if(digit == -1) {
+
+        // multiply products of 4 digits in a long and only move it into the BigInteger when it is full,
+        // this needs only a few BigInteger multiplications even for 100 digits
+        long chunks = 1;
+        int i = 0;
+        for (; i + CHUNK_DIGITS <= input.length; i += CHUNK_DIGITS) {
+            byte d0 = input[i], d1 = input[i + 1], d2 = input[i + 2], d3 = input[i + 3];
+
+            // the "-1" is within this chunk
+            if ((d0 | d1 | d2 | d3) < 0) {
                 break;
             }
 
-            // multiplying by "1" does not change the result
-            if(digit != 1) {
-                product = product.multiply(DIGITS[digit]);
+            int chunk = CHUNK_PRODUCTS[d0 + 10 * d1 + 100 * d2 + 1000 * d3];
+
+            // shortcut this calculation
+            if (chunk == 0) {
+                return BigInteger.ZERO;
+            }
+
+            if (chunks > MAX_CHUNKS_PRODUCT) {
+                product = product.multiply(BigInteger.valueOf(chunks));
+                chunks = 1;
             }
+            chunks *= chunk;
         }
 
-        return product;
-    }
+        for (; i < input.length; i++) {
+            byte digit = input[i];
+            if(digit == -1) {
+                break;
+            }
 
-    private static boolean containsZero(byte[] number) {
-        for (byte b : number) {
-            if(b == -1) {
-                return false;
+            if (digit == 0) {
+                return BigInteger.ZERO;
             }
 
-            if(b == 0) {
-                return true;
+            if (chunks > MAX_CHUNKS_PRODUCT) {
+                product = product.multiply(BigInteger.valueOf(chunks));
+                chunks = 1;
             }
+            chunks *= digit;
         }
 
-        return false;
+        return chunks == 1 ? product : product.multiply(BigInteger.valueOf(chunks));
     }
 
     /**
-     * Simple algorithm for computing prime factors for BigIntegers.
-     * Mostly used in testing/evaluation of known smallest numbers for
-     * multiplicative persistence.
+     * Compute the product of the digits of a number which fits into a long,
+     * 4 digits at a time via a table.
      *
-     * @param input The number to factor
-     * @return A sorted list of all factors of the given number.
+     * E.g. 39 =&gt; 27, 27 =&gt; 14, 14 =&gt; 4
+     *
+     * @param number The number, not negative
+     * @return The product of all digits of the number
      */
-    public static List<BigInteger> primeFactors(String input) {
-        /*        int n = numbers;
-        List<Integer> factors = new ArrayList<Integer>();
-        for (int i = 2; i <= n / i; i++) {
-            while (n % i == 0) {
-                factors.add(i);
-                n /= i;
+    public static long getMultiplicativeDigitalRoot(long number) {
+        long product = 1;
+        while (number >= 10_000) {
+            int chunk = CHUNK_PRODUCTS[(int) (number % 10_000)];
+
+            // shortcut this calculation
+            if (chunk == 0) {
+                return 0;
             }
+
+            product *= chunk;
+            number /= 10_000;
         }
-        if (n > 1) {
-            factors.add(n);
-        }
-        return factors;*/
 
-        BigInteger n = new BigInteger(input);
-        List<BigInteger> factors = new ArrayList<>();
+        return product * LEADING_PRODUCTS[(int) number];
+    }
 
-        // start with prime factor "2"
-        BigInteger i = BigInteger.TWO;
-        //noinspection ConditionalBreakInInfiniteLoop
-        while(true) {
-            // if i is too large for an additional factor we are done here
-            if(i.compareTo(n.divide(i)) > 0) {
+    /**
+     * Same as {@link #getMultiplicativeDigitalRoot(byte[])} as long as the product fits into a long.
+     *
+     * @return The product of the digits or -1 if it does not fit into a long
+     */
+    private static long getSmallMultiplicativeDigitalRoot(byte[] input) {
+        long product = 1;
+        int i = 0;
+        for (; i + CHUNK_DIGITS <= input.length; i += CHUNK_DIGITS) {
+            byte d0 = input[i], d1 = input[i + 1], d2 = input[i + 2], d3 = input[i + 3];
+
+            // the "-1" is within this chunk
+            if ((d0 | d1 | d2 | d3) < 0) {
                 break;
             }
 
-            while(true) {
-                if(n.remainder(i).equals(BigInteger.ZERO)) {
-                    factors.add(i);
-                    n = n.divide(i);
-                } else {
-                    break;
-                }
+            product = multiplyOrOverflow(product, CHUNK_PRODUCTS[d0 + 10 * d1 + 100 * d2 + 1000 * d3]);
+            if (product <= 0) {
+                // overflow or a zero digit
+                return product;
             }
+        }
 
-            i = i.add(BigInteger.ONE);
+        for (; i < input.length && input[i] != -1; i++) {
+            product = multiplyOrOverflow(product, input[i]);
+            if (product <= 0) {
+                return product;
+            }
         }
 
-        if (n.compareTo(BigInteger.ONE) > 0) {
-            factors.add(n);
+        return product;
+    }
+
+    private static boolean containsZero(byte[] number) {
+        // looks at 8 digits at once
+        return DigitWords.containsZero(number);
+    }
+
+    /**
+     * @param value A number which is not negative
+     * @param digits How many of the lowest digits are looked at, positions above the number count as zeros
+     * @return If one of these digits is zero
+     */
+    static boolean containsZero(long value, int digits) {
+        // looks at 4 digits at once
+        for (; digits >= CHUNK_DIGITS; digits -= CHUNK_DIGITS, value /= 10_000) {
+            if (CHUNK_PRODUCTS[(int) (value % 10_000)] == 0) {
+                return true;
+            }
         }
+        for (; digits > 0; digits--, value /= 10) {
+            if (value % 10 == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        return factors;
+    /**
+     * Compute prime factors for BigIntegers, see {@link PrimeFactors} for the algorithm.
+     * Mostly used in testing/evaluation of known smallest numbers for
+     * multiplicative persistence.
+     *
+     * @param input The number to factor
+     * @return A sorted list of all factors of the given number, empty for numbers below 2.
+     */
+    public static List<BigInteger> primeFactors(String input) {
+        return PrimeFactors.factor(new BigInteger(input));
     }
 
     /**
@@ -275,22 +752,24 @@ public class MathUtils {
      * @return the logarithm of the given number in base 10
      */
     public static int log10(BigInteger input) {
-        int digits = 0;
+        if (input.signum() < 0) {
+            input = input.negate();
+        }
+
         int bits = input.bitLength();
-        while (bits > 4) {
-            // 4 > log[2](10) so we should not reduce it too far.
-            int reduce = bits / 4;
-            // Divide by 10^reduce
-            input = input.divide(BigInteger.TEN.pow(reduce));
-            // Removed that many decimal digits.
-            digits += reduce;
-            // Recalculate bitLength
-            bits = input.bitLength();
-        }
-        // Now 4 bits or less - add 1 if necessary.
-        if ( input.intValue() > 9 ) {
-            digits += 1;
-        }
-        return digits;
+        if (bits == 0) {
+            return 0;
+        }
+
+        // 10^estimate <= 2^(bits-1) <= input < 2^bits, so the result is either estimate or estimate + 1
+        int estimate = (int) ((bits - 1) * LOG10_OF_2);
+
+        // only if 10^(estimate + 1) has the same number of bits we need to compare
+        int powerBits = (int) ((estimate + 1) * LOG2_OF_10) + 1;
+        if (bits != powerBits) {
+            return bits < powerBits ? estimate : estimate + 1;
+        }
+
+        return input.compareTo(PowersOfTen.pow(estimate + 1)) >= 0 ? estimate + 1 : estimate;
     }
 }
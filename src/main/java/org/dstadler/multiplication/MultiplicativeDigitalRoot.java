@@ -1,69 +1,78 @@
 package org.dstadler.multiplication;
 
-import java.math.BigInteger;
+import java.util.Arrays;
 
 /**
  * A sample application which uses Strings and BigIntegers to handle large numbers, but this is
  * obviously rather inefficient and limits the number of checks that can be performed.
+ *
+ * The digits are incremented in a char-array which directly jumps to the next number with
+ * ascending digits without "0" and "1", so only the persistence is computed via Strings.
+ *
+ * The search itself is implemented in {@link SearchEngine}.
  */
 public class MultiplicativeDigitalRoot {
     public static void main(String[] args) {
+        SearchEngine.builder()
+                .representation(SearchEngine.Representation.STRING)
+                .progressInterval(2788999)
+                .listener(new ConsoleSearchListener())
+                .build()
+                .run();
+    }
 
-        int maxPersistence = 1;
-        int count = 0;
-        int countCheck = 0;
-
-        BigInteger number = new BigInteger("0");
-        long start = System.currentTimeMillis();
-
-        while(true) {
-            /*System.out.println("Please enter a number: ");
-            String input = System.console().readLine();
-            if (StringUtils.isEmpty(input)) {
-                break;
-            }*/
-
-            //String input = RandomStringUtils.random(RandomUtils.nextInt(16, 100), "12345789");
-            number = number.add(BigInteger.ONE);
-
-            final int persistence;
-            String input = number.toString();
-            if(!candidate(input)) {
-                persistence = -1;
-            } else {
-                //System.out.println("Calculating the persistence of " + input);
-                persistence = MathUtils.getPersistence(input);
-                countCheck++;
-
-                if(persistence > maxPersistence) {
-                    System.out.printf("Found persistence %d for %s after %,dms%n",
-							persistence, input, System.currentTimeMillis() - start);
-                }
-            }
+    /**
+     * Increment to the next number with digits 2 to 9 in ascending order, all numbers in between
+     * contain "0" or "1" or have descending digits and thus are not candidates anyway.
+     *
+     * E.g. 2 =&gt; 3, 29 =&gt; 33, 99 =&gt; 222
+     *
+     * This method expects to only receive an empty number or numbers which were the result
+     * of previous invocations of this method!
+     *
+     * @param number The digits of the current number, highest digit first
+     * @param length How many digits the current number has, 0 for an empty number
+     * @return How many digits the number has after incrementing
+     * @throws IllegalStateException If the next number does not fit into the array
+     */
+    protected static int increment(char[] number, int length) {
+        // skip all nines at the end
+        int i = length - 1;
+        while (i >= 0 && number[i] == '9') {
+            i--;
+        }
 
-            if(persistence >= 10 || count % 2788999 == 0) {
-                long now = System.currentTimeMillis();
-                long duration = (now - start)/1000;
-                System.out.printf("Had persistence: %2d for %,15d, max: %2d, n/sec: %,15d, checked: %,15d%n",
-                        persistence, number, maxPersistence,
-                        (duration == 0 ? BigInteger.ZERO : number.divide(BigInteger.valueOf(duration))), countCheck);
+        if (i < 0) {
+            if (length == number.length) {
+                throw new IllegalStateException("Cannot increment beyond " + length + " digits");
             }
 
-            maxPersistence = Math.max(persistence, maxPersistence);
-            count++;
-
-            if(persistence > 11) {
-                break;
-            }
+            // skip 0 and 1 as both are not seen as candidates anyway
+            Arrays.fill(number, 0, length + 1, '2');
+            return length + 1;
         }
-        System.out.println("Had max persistence of " + maxPersistence);
+
+        // the following digits cannot be lower than the incremented one
+        Arrays.fill(number, i, length, (char) (number[i] + 1));
+        return length;
     }
 
     protected static boolean candidate(String input) {
+        return candidate(input.toCharArray(), input.length());
+    }
+
+    /**
+     * Same as {@link #candidate(String)} for the first digits of a char-array.
+     *
+     * @param number The digits of the number, highest digit first
+     * @param length How many digits of the array belong to the number
+     */
+    protected static boolean candidate(char[] number, int length) {
         // not a candidate if digits are not ordered
         char prev = '0';
         boolean two = false, three = false;
-        for (char c :input.toCharArray()){
+        for (int i = 0; i < length; i++) {
+            char c = number[i];
             if(c < prev) {
                 return false;
             }
@@ -2,7 +2,7 @@ package org.dstadler.multiplication;
 
 import static org.dstadler.multiplication.MathUtils.MAX_DIGITS;
 
-import java.math.BigInteger;
+import java.io.IOException;
 import java.util.Arrays;
 
 /**
@@ -13,67 +13,27 @@ import java.util.Arrays;
  * much less numbers and skip large sections of numbers that are not relevant anyway.
  *
  * The digits in the byte-array are stored with lowest ones first, i.e 25 is stored as { 5, 2 }.
+ *
+ * Use "--checkpoint &lt;file&gt;" to periodically store the state of the search and
+ * "--resume" to continue from there, see {@link Checkpoint}.
+ *
+ * Use "--decimal" to compute persistence via {@link DecimalLimbKernel} instead of BigInteger.
+ *
+ * The search itself is implemented in {@link SearchEngine}.
  */
 public class MultiplicativeDigitalRootByteArray {
-    private static int maxPersistence = 1;
-    private static int count = 0;
-    private static int countCheck = 0;
-    private static long countCandidate;
 	private static int digits = 0;
-    private static final long start = System.currentTimeMillis();
-
-    public static void main(String[] args) {
-        byte[] number = new byte[MAX_DIGITS];
-		Arrays.fill(number, (byte) -1);
-
-        while(true) {
-            if (runIteration(number)) {
-                break;
-            }
-        }
-
-        System.out.println("Had max persistence of " + maxPersistence);
-    }
 
-    private static boolean runIteration(byte[] number) {
-        increment(number);
-
-        countCandidate++;
-
-        if (candidate(number)) {
-            //System.out.println("Calculating the persistence of " + input);
-            int persistence = MathUtils.getPersistence(number);
-            countCheck++;
-
-            if (persistence > maxPersistence) {
-                System.out.printf("Found persistence %2d for %s after %,dms%n",
-						persistence, MathUtils.toString(number), System.currentTimeMillis() - start);
-                maxPersistence = persistence;
-            }
-        }
-
-        if (count % 278999992 == 0) {
-            long now = System.currentTimeMillis();
-            long duration = (now - start)/1000;
-            BigInteger bigNumber = new BigInteger(MathUtils.toString(number));
-            BigInteger nPerSec = duration == 0 ? BigInteger.ZERO : bigNumber.divide(BigInteger.valueOf(duration));
-			System.out.printf("%,10ds: Testing(%,3d): %,30d, max: %2d, n/sec: %,28d (%,8d), "
-							+ "candidates: %,20d (%,5d), checked: %,10d (%,5d)%n",
-                    duration, MathUtils.toString(number).length(), bigNumber, maxPersistence,
-                    nPerSec, BigInteger.valueOf(100_000).multiply(nPerSec).divide(bigNumber),
-					countCandidate, BigInteger.valueOf(10_000_000).multiply(BigInteger.valueOf(countCandidate)).divide(bigNumber),
-                    countCheck, BigInteger.valueOf(100_000_000_000L).multiply(BigInteger.valueOf(countCheck)).divide(bigNumber)
-            );
-
-			/*if (start + TimeUnit.MINUTES.toMillis(1) < System.currentTimeMillis()) {
-				System.out.println("Stopping after 1 Minute");
-				System.exit(0);
-			}*/
+    public static void main(String[] args) throws IOException {
+        try (Checkpoint checkpoint = Checkpoint.fromArgs(args)) {
+            SearchEngine.builder()
+                    .representation(SearchEngine.Representation.BYTE_ARRAY)
+                    .decimalKernel(Arrays.asList(args).contains("--decimal"))
+                    .checkpoint(checkpoint)
+                    .listener(new ConsoleSearchListener())
+                    .build()
+                    .run();
         }
-
-        count++;
-
-        return maxPersistence > 11;
     }
 
     /**
@@ -91,6 +51,18 @@ public class MultiplicativeDigitalRootByteArray {
      * @param number The current number as byte-array with digits in reverse order
      */
     protected static void increment(byte[] number) {
+        digits = increment(number, digits);
+    }
+
+    /**
+     * Same as {@link #increment(byte[])}, but keeps the position of the highest digit
+     * in the caller instead of the static field.
+     *
+     * @param number The current number as byte-array with digits in reverse order
+     * @param digits The position of the highest digit before incrementing, 0 for an empty byte-array
+     * @return The position of the highest digit after incrementing
+     */
+    protected static int increment(byte[] number, int digits) {
         for(int i = 0;i < MAX_DIGITS;i++) {
             byte nr = number[i];
 
@@ -98,8 +70,7 @@ public class MultiplicativeDigitalRootByteArray {
             if (nr == -1) {
                 // skip 0 and 1 as both are not seen as candidates anyway
 				number[i] = 2;
-				digits = i;
-                break;
+				return i;
             }
 
             // when a digit is 9, set it to 2 and continue incrementing the next digits
@@ -124,6 +95,8 @@ public class MultiplicativeDigitalRootByteArray {
                 break;
             }
         }
+
+        return digits;
     }
 
     /**
@@ -134,57 +107,14 @@ public class MultiplicativeDigitalRootByteArray {
      * @param number The current number as byte-array with digits in reverse order
      * @return true if this number can be checked for persistence or false if
      *      it should be skipped.
+     * @throws IllegalStateException If the number has {@link MathUtils#MAX_DIGITS} digits or more
      */
     protected static boolean candidate(byte[] number) {
-        // not a candidate if digits are not ordered
-        byte prev = 9;
-        boolean two = false, three = false, five = false;
-        for (int i = 0;i < MAX_DIGITS;i++) {
-            byte b = number[i];
-            if (b == -1) {
-                return true;
-            }
-
-            if (b > prev) {
-                return false;
-            }
-
-            if (b == 2) {
-                // "2" and "2" could be replaced by "4" and would give a smaller number
-                // "2" and "3" can be replaced by "6" and this would give a smaller number
-                if (two || three) {
-                    return false;
-                }
-
-                // two and five together cause a "10" and thus are not more than 2 steps to get to root "0"
-				// irrespective of any other digits in the number
-				// this actually causes checking "25" to fail, but we ignore this one special case for now
-                if (five) {
-                    return false;
-                }
-
-				two = true;
-            } else if (b == 3) {
-                // "3" and "3" can be replaced by "9" and this would give a smaller number
-                if (three) {
-                    return false;
-                }
-                three = true;
-            } else if (b == 5) {
-                five = true;
-            }
-
-            prev = b;
-        }
-
-        throw new IllegalStateException("Exceeded max number of digits: " + MAX_DIGITS);
+        // looks at 8 digits at once
+        return DigitWords.candidate(number);
     }
 
 	protected static void reset() {
-		maxPersistence = 1;
-		count = 0;
-		countCheck = 0;
-		countCandidate = 0;
 		digits = 0;
 	}
 }
@@ -0,0 +1,22 @@
+package org.dstadler.multiplication;
+
+/**
+ * A sample application which does not enumerate numbers at all, but only the
+ * counts of the digits 2 to 9 via {@link DigitHistogram}.
+ *
+ * As the product only depends on the multiset of digits, this visits only the
+ * smallest number of each multiset and computes the product from the exponents
+ * of 2, 3, 5 and 7. It is not limited by {@link MathUtils#MAX_DIGITS}.
+ *
+ * The search itself is implemented in {@link SearchEngine}.
+ */
+public class MultiplicativeDigitalRootHistogram {
+    public static void main(String[] args) {
+        SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM)
+                .progressInterval(1 << 22)
+                .listener(new ConsoleSearchListener())
+                .build()
+                .run();
+    }
+}
@@ -0,0 +1,208 @@
+package org.dstadler.multiplication;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A sample application which uses all available cores by splitting the numbers
+ * enumerated via {@link DigitHistogram} by number of digits and then into halves of
+ * their ranks, see {@link CandidateRanking}, until each task only has a small range of
+ * candidates, which are processed by a {@link ForkJoinPool}.
+ *
+ * Most candidates consist only of the digits 7, 8 and 9, so splitting by leading digits gives
+ * very uneven tasks, while ranges of ranks always have the same number of candidates and each
+ * task starts at the first one of its range via {@link CandidateRanking#unrank(long, DigitHistogram)}.
+ *
+ * Tasks can finish in any order, so each task returns the smallest number it found
+ * for each persistence and results are merged by keeping the smaller number.
+ * {@link SearchEngine} submits the next few lengths while waiting for the current one, so threads
+ * do not wait for the slowest task of a length, and reports records as soon as all numbers with
+ * the same number of digits are checked.
+ */
+public class MultiplicativeDigitalRootParallel {
+    // split tasks until they check at most this many candidates
+    private static final long MAX_RANGE = 1 << 10;
+
+    // how often tasks check if they should stop early
+    private static final int STOP_CHECK_MASK = (1 << 12) - 1;
+
+    public static void main(String[] args) {
+        int parallelism = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+
+        SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM)
+                .threads(parallelism)
+                .listener(new ConsoleSearchListener(0))
+                .build()
+                .run();
+    }
+
+    /**
+     * Check all candidates with the given range of lengths in parallel.
+     *
+     * @param pool The pool for running the tasks
+     * @param fromLength The smallest number of digits, inclusive
+     * @param toLength The largest number of digits, inclusive
+     * @param maxLowDigits How many of the digits 2 to 6 are allowed, see {@link DigitHistogram#DigitHistogram(int)}
+     * @param counters Incremented for each number which is checked
+     * @param cache The cache which is shared by all tasks, null for not using a cache
+     * @return The smallest number found for each persistence.
+     */
+    public static Map<Integer, BigInteger> search(ForkJoinPool pool, int fromLength, int toLength,
+                                                  int maxLowDigits, SearchCounters counters, PersistenceCache cache) {
+        return search(pool, fromLength, toLength, maxLowDigits, counters, cache, () -> false);
+    }
+
+    /**
+     * Same as {@link #search(ForkJoinPool, int, int, int, SearchCounters, PersistenceCache)}, but
+     * tasks stop early when the given condition becomes true, the result is incomplete then.
+     *
+     * @param stopped Polled periodically by all tasks
+     */
+    static Map<Integer, BigInteger> search(ForkJoinPool pool, int fromLength, int toLength,
+                                           int maxLowDigits, SearchCounters counters, PersistenceCache cache,
+                                           BooleanSupplier stopped) {
+        List<SearchTask> tasks = new ArrayList<>();
+        for (int length = fromLength; length <= toLength; length++) {
+            tasks.add(createTask(length, maxLowDigits, counters, cache, stopped));
+        }
+
+        return pool.invoke(new MergeTask(tasks));
+    }
+
+    /**
+     * Start checking all candidates with the given length without waiting for them, so that
+     * the tasks of multiple lengths are processed by the pool at the same time.
+     *
+     * @param stopped Polled periodically by all tasks, the result is incomplete if they stopped early
+     * @return The task which provides the smallest number found for each persistence
+     */
+    static ForkJoinTask<Map<Integer, BigInteger>> submit(ForkJoinPool pool, int length, int maxLowDigits,
+                                                         SearchCounters counters, PersistenceCache cache,
+                                                         BooleanSupplier stopped) {
+        return pool.submit(createTask(length, maxLowDigits, counters, cache, stopped));
+    }
+
+    private static SearchTask createTask(int length, int maxLowDigits, SearchCounters counters, PersistenceCache cache,
+                                         BooleanSupplier stopped) {
+        CandidateRanking ranking = new CandidateRanking(maxLowDigits);
+        long fromRank = ranking.firstRank(length);
+        return new SearchTask(ranking, maxLowDigits, fromRank, fromRank + ranking.count(length),
+                counters, cache, stopped);
+    }
+
+    /**
+     * Merge the results of two tasks by keeping the smaller number for each persistence.
+     */
+    private static Map<Integer, BigInteger> merge(Map<Integer, BigInteger> result, Map<Integer, BigInteger> other) {
+        for (Map.Entry<Integer, BigInteger> entry : other.entrySet()) {
+            result.merge(entry.getKey(), entry.getValue(), BigInteger::min);
+        }
+        return result;
+    }
+
+    private static class MergeTask extends RecursiveTask<Map<Integer, BigInteger>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends RecursiveTask<Map<Integer, BigInteger>>> tasks;
+
+        private MergeTask(List<? extends RecursiveTask<Map<Integer, BigInteger>>> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected Map<Integer, BigInteger> compute() {
+            invokeAll(tasks);
+
+            Map<Integer, BigInteger> result = new TreeMap<>();
+            for (RecursiveTask<Map<Integer, BigInteger>> task : tasks) {
+                merge(result, task.join());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Checks all candidates in a range of ranks, splits into two tasks with
+     * halves of the range until at most {@link #MAX_RANGE} candidates are left.
+     */
+    private static class SearchTask extends RecursiveTask<Map<Integer, BigInteger>> {
+        private static final long serialVersionUID = 1L;
+
+        private final CandidateRanking ranking;
+        private final int maxLowDigits;
+        private final long fromRank;
+        private final long toRank;
+        private final SearchCounters counters;
+        private final PersistenceCache cache;
+        private final BooleanSupplier stopped;
+
+        /**
+         * @param ranking Ranks the candidates of the histogram with the given number of low digits
+         * @param fromRank The first candidate, inclusive
+         * @param toRank The last candidate, exclusive
+         */
+        private SearchTask(CandidateRanking ranking, int maxLowDigits, long fromRank, long toRank,
+                           SearchCounters counters, PersistenceCache cache, BooleanSupplier stopped) {
+            this.ranking = ranking;
+            this.maxLowDigits = maxLowDigits;
+            this.fromRank = fromRank;
+            this.toRank = toRank;
+            this.counters = counters;
+            this.cache = cache;
+            this.stopped = stopped;
+        }
+
+        @Override
+        protected Map<Integer, BigInteger> compute() {
+            if (toRank - fromRank > MAX_RANGE) {
+                long middle = fromRank + (toRank - fromRank) / 2;
+                SearchTask lower = new SearchTask(ranking, maxLowDigits, fromRank, middle, counters, cache, stopped);
+                SearchTask upper = new SearchTask(ranking, maxLowDigits, middle, toRank, counters, cache, stopped);
+                invokeAll(lower, upper);
+
+                return merge(lower.join(), upper.join());
+            }
+
+            Map<Integer, BigInteger> result = new TreeMap<>();
+            if (fromRank == toRank) {
+                return result;
+            }
+
+            DigitHistogram number = new DigitHistogram(maxLowDigits);
+            ranking.unrank(fromRank, number);
+
+            long count = 0;
+            while (true) {
+                int persistence = cache == null ?
+                        MathUtils.getPersistence(number) : MathUtils.getPersistence(number, cache);
+                count++;
+
+                // numbers are visited in ascending order, so the first one is the smallest
+                if (!result.containsKey(persistence)) {
+                    result.put(persistence, new BigInteger(number.toString()));
+                }
+
+                if (fromRank + count == toRank ||
+                        ((count & STOP_CHECK_MASK) == 0 && stopped.getAsBoolean())) {
+                    break;
+                }
+
+                number.next();
+            }
+
+            // every enumerated number is checked, there are no skipped candidates
+            counters.addCandidates(count);
+            counters.addChecks(count);
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package org.dstadler.multiplication;
+
+import static org.dstadler.multiplication.MathUtils.MAX_DIGITS;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A sample application which splits the search of {@link MultiplicativeDigitalRootByteArray}
+ * into two stages: one generator thread increments the number and only passes on candidates,
+ * multiple evaluator threads compute their persistence.
+ *
+ * Generating is cheap and regular while the cost of computing the persistence varies a lot,
+ * so candidates are passed in batches via a {@link BatchRingBuffer}, which lets the generator
+ * run ahead by a bounded number of batches and lets idle evaluators take the next batch.
+ *
+ * Batches are evaluated in any order, an evaluator stores the numbers in a batch which had a higher
+ * persistence than all numbers before them in the batch. The generator confirms released batches in
+ * the order of their sequence and reports a record as soon as all batches before it are evaluated,
+ * before it fills the slot of the batch again.
+ *
+ * Usage via commandline: "[evaluators] [batch size] [capacity]"
+ */
+public class MultiplicativeDigitalRootPipeline {
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final int DEFAULT_CAPACITY = 64;
+
+    // how often the generator checks if it should stop early
+    private static final int STOP_CHECK_MASK = (1 << 12) - 1;
+
+    private final int evaluators;
+    private final int batchSize;
+    private final int capacity;
+    private final ThreadFactory threadFactory;
+
+    public static void main(String[] args) {
+        int evaluators = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() - 1;
+
+        SearchEngine.builder()
+                .representation(SearchEngine.Representation.BYTE_ARRAY)
+                .threads(Math.max(2, evaluators))
+                .batchSize(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BATCH_SIZE)
+                .ringCapacity(args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CAPACITY)
+                .listener(new ConsoleSearchListener(0))
+                .build()
+                .run();
+    }
+
+    /**
+     * @param evaluators How many threads compute the persistence of candidates
+     * @param batchSize How many candidates are passed to an evaluator at once
+     * @param capacity How many batches the generator can be ahead of the evaluators
+     * @param threadFactory Creates the evaluator threads
+     */
+    public MultiplicativeDigitalRootPipeline(int evaluators, int batchSize, int capacity, ThreadFactory threadFactory) {
+        if (evaluators < 1) {
+            throw new IllegalArgumentException("Evaluators need to be at least 1, but had: " + evaluators);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size needs to be at least 1, but had: " + batchSize);
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity needs to be at least 1, but had: " + capacity);
+        }
+
+        this.evaluators = evaluators;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Check all candidates up to the given number of digits, the calling thread generates
+     * the candidates while the evaluator threads compute their persistence.
+     *
+     * @param maxDigits Stop after all numbers with this many digits are checked, at most {@link MathUtils#MAX_DIGITS} - 1
+     * @param targetPersistence Stop when a number with at least this persistence is found
+     * @param counters Incremented for each enumerated and each checked number
+     * @param stopped Polled periodically by the generator, all candidates up to this point are still checked
+     * @return The numbers which had a higher persistence than all smaller candidates
+     */
+    public Map<Integer, BigInteger> search(int maxDigits, int targetPersistence, SearchCounters counters,
+                                           BooleanSupplier stopped) {
+        return search(maxDigits, targetPersistence, counters, stopped, new SearchListener() {
+        }, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #search(int, int, SearchCounters, BooleanSupplier)}, but also reports records and progress.
+     *
+     * @param listener Receives records and progress from the calling thread
+     * @param progressInterval How many numbers are enumerated between progress-events
+     */
+    public Map<Integer, BigInteger> search(int maxDigits, int targetPersistence, SearchCounters counters,
+                                           BooleanSupplier stopped, SearchListener listener, int progressInterval) {
+        if (maxDigits < 1 || maxDigits > MAX_DIGITS - 1) {
+            throw new IllegalArgumentException("Max digits needs to be between 1 and " + (MAX_DIGITS - 1) +
+                    ", but had: " + maxDigits);
+        }
+
+        BatchRingBuffer ring = new BatchRingBuffer(capacity, batchSize);
+        Records records = new Records(listener, counters);
+
+        // only the first failure, the others are usually caused by aborting the ring
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < evaluators; i++) {
+            Thread thread = threadFactory.newThread(new Evaluator(ring, counters, failure));
+            thread.start();
+            threads.add(thread);
+        }
+
+        long end = 0;
+        IllegalStateException aborted = null;
+        try {
+            end = generate(ring, maxDigits, counters,
+                    () -> stopped.getAsBoolean() || records.maxPersistence >= targetPersistence,
+                    listener, progressInterval, records);
+        } catch (IllegalStateException e) {
+            // an evaluator failed, report its exception below
+            aborted = e;
+        } finally {
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    ring.abort();
+                }
+            }
+        }
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("Evaluating candidates failed", failure.get());
+        }
+        if (aborted != null) {
+            throw aborted;
+        }
+
+        // all batches are released now
+        records.confirm(ring, end);
+
+        return records.found;
+    }
+
+    /**
+     * @return The sequence after the last published batch
+     */
+    private long generate(BatchRingBuffer ring, int maxDigits, SearchCounters counters, BooleanSupplier stopped,
+                          SearchListener listener, int progressInterval, Records records) {
+        byte[] number = new byte[MAX_DIGITS];
+        Arrays.fill(number, (byte) -1);
+        int digits = 0;
+
+        long sequence = 0;
+        long countCandidate = 0;
+        long published = 0;
+        int untilProgress = progressInterval;
+        boolean done = false;
+        try {
+            while (!done) {
+                BatchRingBuffer.Batch batch = ring.claim(sequence);
+
+                // the batch which used this slot before is released now, so at least
+                // this one can be confirmed before its records are overwritten
+                records.confirm(ring, sequence);
+
+                int size = 0;
+                while (size < batchSize) {
+                    digits = MultiplicativeDigitalRootByteArray.increment(number, digits);
+                    if (digits + 1 > maxDigits) {
+                        done = true;
+                        break;
+                    }
+
+                    countCandidate++;
+                    if (DigitWords.candidate(number)) {
+                        // copy the digits including the terminating "-1"
+                        System.arraycopy(number, 0, batch.numbers, size * MAX_DIGITS, digits + 2);
+                        size++;
+                    }
+
+                    if (--untilProgress == 0) {
+                        untilProgress = progressInterval;
+
+                        counters.addCandidates(countCandidate - published);
+                        published = countCandidate;
+                        listener.progress(MathUtils.toString(number), records.maxPersistence, counters);
+                    }
+
+                    if ((countCandidate & STOP_CHECK_MASK) == 0 && stopped.getAsBoolean()) {
+                        done = true;
+                        break;
+                    }
+                }
+
+                batch.size = size;
+                ring.publish(sequence++);
+
+                counters.addCandidates(countCandidate - published);
+                published = countCandidate;
+            }
+        } finally {
+            ring.close(sequence);
+        }
+
+        return sequence;
+    }
+
+    /**
+     * The records which are confirmed so far, only used by the generator thread.
+     */
+    private static class Records {
+        private final SearchListener listener;
+        private final SearchCounters counters;
+        private final Map<Integer, BigInteger> found = new TreeMap<>();
+        private final byte[] number = new byte[MAX_DIGITS];
+
+        // the next sequence which is confirmed
+        private long next;
+        private int maxPersistence = 1;
+
+        private Records(SearchListener listener, SearchCounters counters) {
+            this.listener = listener;
+            this.counters = counters;
+        }
+
+        /**
+         * Report the records of all batches which are released in the order of their sequence.
+         *
+         * @param end Stop before this sequence
+         */
+        private void confirm(BatchRingBuffer ring, long end) {
+            while (next < end && ring.isReleased(next)) {
+                BatchRingBuffer.Batch batch = ring.get(next);
+                for (int i = 0; i < batch.recordCount; i++) {
+                    int persistence = batch.recordPersistences[i];
+                    if (persistence > maxPersistence) {
+                        maxPersistence = persistence;
+
+                        System.arraycopy(batch.numbers, batch.recordIndexes[i] * MAX_DIGITS, number, 0, MAX_DIGITS);
+                        String str = MathUtils.toString(number);
+                        found.put(persistence, new BigInteger(str));
+                        listener.recordFound(persistence, str, counters);
+                    }
+                }
+                next++;
+            }
+        }
+    }
+
+    private static class Evaluator implements Runnable {
+        private final BatchRingBuffer ring;
+        private final SearchCounters counters;
+        private final AtomicReference<Throwable> failure;
+
+        private Evaluator(BatchRingBuffer ring, SearchCounters counters, AtomicReference<Throwable> failure) {
+            this.ring = ring;
+            this.counters = counters;
+            this.failure = failure;
+        }
+
+        @Override
+        public void run() {
+            byte[] number = new byte[MAX_DIGITS];
+            try {
+                long sequence;
+                while ((sequence = ring.take()) != -1) {
+                    BatchRingBuffer.Batch batch = ring.get(sequence);
+                    batch.recordCount = 0;
+
+                    int maxPersistence = 0;
+                    for (int i = 0; i < batch.size; i++) {
+                        System.arraycopy(batch.numbers, i * MAX_DIGITS, number, 0, MAX_DIGITS);
+
+                        int persistence = MathUtils.getPersistence(number);
+                        if (persistence > maxPersistence) {
+                            maxPersistence = persistence;
+                            batch.addRecord(i, persistence);
+                        }
+                    }
+
+                    counters.addChecks(batch.size);
+                    ring.release(sequence);
+                }
+            } catch (Throwable e) {
+                // set before aborting, so it is not replaced by the failures which this causes in the others
+                failure.compareAndSet(null, e);
+                ring.abort();
+            }
+        }
+    }
+}
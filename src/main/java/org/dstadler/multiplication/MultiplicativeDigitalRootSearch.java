@@ -0,0 +1,113 @@
+package org.dstadler.multiplication;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Command line application on top of {@link SearchEngine}, all options are optional:
+ *
+ * <pre>
+ * --representation string|byte-array|byte-array-integer|histogram
+ * --target &lt;persistence&gt;    stop when this persistence is found, default 12
+ * --max-digits &lt;digits&gt;     stop after all numbers with this many digits are checked
+ * --base &lt;base&gt;            search numbers in another base than 10, only for the byte-array representation
+ * --threads &lt;threads&gt;       only for the histogram representation
+ * --from-rank &lt;rank&gt;       start at the candidate with this rank, only for the histogram representation
+ * --to-rank &lt;rank&gt;         stop before the candidate with this rank, see {@link CandidateRanking}
+ * --time-budget &lt;seconds&gt;   stop after this many seconds
+ * --progress &lt;numbers&gt;      how many numbers are enumerated between progress-events
+ * --journal &lt;file&gt;         append records to this file, see {@link ResultJournal}
+ * --work-dir &lt;directory&gt;   search chunks together with other processes, see {@link WorkCoordinator}
+ * --chunk-size &lt;ranks&gt;      how many ranks are searched in one chunk of the work directory
+ * </pre>
+ *
+ * Stopping the application via Ctrl-C cancels the search, so the
+ * summary is still printed.
+ */
+public class MultiplicativeDigitalRootSearch {
+    public static void main(String[] args) throws InterruptedException {
+        SearchEngine engine = parse(args).build();
+
+        Thread main = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            engine.cancel();
+            try {
+                main.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        SearchEngine.Result result = engine.run();
+
+        System.out.println("Stopped because of " + result.getStopReason() + ", " + result.getCounters());
+        for (int persistence : result.getRecords().keySet()) {
+            System.out.printf("%2d: %s%n", persistence, result.getRecords().get(persistence));
+        }
+    }
+
+    /**
+     * @param args The arguments as described in the class documentation
+     * @return A builder which is configured according to the arguments
+     * @throws IllegalArgumentException If an argument is unknown or has an invalid value
+     */
+    protected static SearchEngine.Builder parse(String[] args) {
+        SearchEngine.Builder builder = SearchEngine.builder();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i == args.length - 1) {
+                throw new IllegalArgumentException("Missing value for argument " + arg);
+            }
+
+            String value = args[++i];
+            try {
+                switch (arg) {
+                    case "--representation":
+                        builder.representation(SearchEngine.Representation.valueOf(
+                                value.toUpperCase(Locale.ROOT).replace('-', '_')));
+                        break;
+                    case "--target":
+                        builder.targetPersistence(Integer.parseInt(value));
+                        break;
+                    case "--max-digits":
+                        builder.maxDigits(Integer.parseInt(value));
+                        break;
+                    case "--base":
+                        builder.base(Integer.parseInt(value));
+                        break;
+                    case "--threads":
+                        builder.threads(Integer.parseInt(value));
+                        break;
+                    case "--from-rank":
+                        builder.fromRank(Long.parseLong(value));
+                        break;
+                    case "--to-rank":
+                        builder.toRank(Long.parseLong(value));
+                        break;
+                    case "--time-budget":
+                        builder.timeBudget(Duration.ofSeconds(Long.parseLong(value)));
+                        break;
+                    case "--progress":
+                        builder.progressInterval(Integer.parseInt(value));
+                        break;
+                    case "--journal":
+                        builder.journal(Paths.get(value));
+                        break;
+                    case "--work-dir":
+                        builder.workDirectory(Paths.get(value));
+                        break;
+                    case "--chunk-size":
+                        builder.chunkSize(Long.parseLong(value));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument " + arg);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value for argument " + arg + ": " + value, e);
+            }
+        }
+
+        return builder;
+    }
+}
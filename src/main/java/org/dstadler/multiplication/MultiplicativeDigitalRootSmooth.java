@@ -0,0 +1,235 @@
+package org.dstadler.multiplication;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * A sample application which does not search over numbers, but over the products of
+ * their digits: apart from the first step, persistence only depends on the product,
+ * which is always 2^a * 3^b * 5^c * 7^d. Products with both 2 and 5 end with a zero,
+ * so only 2^a * 3^b * 7^d and 3^b * 5^c * 7^d are interesting.
+ *
+ * Nearly all of these products contain a zero, so each one is first checked for a zero in
+ * its lowest {@link #WINDOW_DIGITS} digits, which are kept up to date incrementally in a few
+ * longs, only the remaining ones are computed completely via
+ * {@link MathUtils#getPersistence(int, int, int, int)}.
+ *
+ * For each product without zeros the smallest number with this product of digits is
+ * built from the exponents, see {@link #getSmallestPreimage(int, int, int, int)}.
+ *
+ * The number of products grows with the cube of the number of digits, but this still
+ * covers products with far more digits than any enumeration of numbers.
+ *
+ * Usage via commandline: "[max digits of the products]"
+ */
+public class MultiplicativeDigitalRootSmooth {
+    private static final double LOG10_OF_2 = Math.log10(2);
+    private static final double LOG10_OF_3 = Math.log10(3);
+    private static final double LOG10_OF_5 = Math.log10(5);
+    private static final double LOG10_OF_7 = Math.log10(7);
+
+    // the logarithms are sums of doubles, so the number of digits is only trusted with a small margin
+    private static final double LOG_MARGIN = 1e-9;
+
+    private static final long LIMB = 1_000_000_000_000_000_000L;
+    private static final int WINDOW_LIMBS = 6;
+    static final int WINDOW_DIGITS = WINDOW_LIMBS * PowersOfTen.LONG_DIGITS;
+
+    public static void main(String[] args) {
+        int maxDigits = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+
+        report(maxDigits, new ConsoleSearchListener());
+    }
+
+    /**
+     * Run {@link #search(int, SearchCounters)} and send the smallest number for each persistence
+     * and the end of the search to the given listener.
+     *
+     * @param maxDigits How many digits the products can have at most
+     * @param listener Receives the results
+     */
+    public static void report(int maxDigits, SearchListener listener) {
+        SearchCounters counters = new SearchCounters();
+        SortedMap<Integer, String> results = search(maxDigits, counters);
+        for (SortedMap.Entry<Integer, String> entry : results.entrySet()) {
+            listener.recordFound(entry.getKey(), entry.getValue(), counters);
+        }
+        listener.finished(results.isEmpty() ? 0 : results.lastKey(), counters);
+    }
+
+    /**
+     * Check all products 2^a * 3^b * 7^d and 3^b * 5^c * 7^d below 10^maxDigits.
+     *
+     * @param maxDigits How many digits the products can have at most
+     * @param counters Incremented for each enumerated product and for each product
+     *                 where the persistence is computed
+     * @return The smallest number for each persistence of at least 3, i.e. for all products
+     *      with more than one digit and without zeros
+     */
+    public static SortedMap<Integer, String> search(int maxDigits, SearchCounters counters) {
+        if (maxDigits < 1) {
+            throw new IllegalArgumentException("Max digits needs to be at least 1, but had: " + maxDigits);
+        }
+
+        SortedMap<Integer, String> results = new TreeMap<>();
+
+        // 2^a * 3^b * 7^d and 3^b * 5^c * 7^d with c > 0, as the first one already covers c = 0
+        search(maxDigits, 2, 0, counters, results);
+        search(maxDigits, 5, 1, counters, results);
+
+        return results;
+    }
+
+    /**
+     * @param inner The prime which is combined with 3 and 7, either 2 or 5
+     * @param minInner The smallest exponent of the inner prime
+     */
+    private static void search(int maxDigits, int inner, int minInner, SearchCounters counters,
+                               SortedMap<Integer, String> results) {
+        double innerLog = inner == 2 ? LOG10_OF_2 : LOG10_OF_5;
+
+        // the lowest digits of 7^d, 3^b * 7^d and the current product
+        long[] sevensWindow = newWindow();
+        long[] threesWindow = new long[WINDOW_LIMBS];
+        long[] window = new long[WINDOW_LIMBS];
+
+        long countCandidates = 0;
+        long countChecks = 0;
+        for (int sevens = 0; sevens * LOG10_OF_7 < maxDigits; sevens++) {
+            System.arraycopy(sevensWindow, 0, threesWindow, 0, WINDOW_LIMBS);
+            for (int threes = 0; sevens * LOG10_OF_7 + threes * LOG10_OF_3 < maxDigits; threes++) {
+                double log = sevens * LOG10_OF_7 + threes * LOG10_OF_3;
+                System.arraycopy(threesWindow, 0, window, 0, WINDOW_LIMBS);
+                for (int i = 0; i < minInner; i++) {
+                    multiply(window, inner);
+                }
+
+                for (int exponent = minInner; log + exponent * innerLog < maxDigits; exponent++) {
+                    countCandidates++;
+
+                    // fewer digits if in doubt, then the full check below decides
+                    int digits = (int) (log + exponent * innerLog - LOG_MARGIN) + 1;
+                    if (digits > 1 && isZeroFree(window, digits)) {
+                        int twos = inner == 2 ? exponent : 0;
+                        int fives = inner == 5 ? exponent : 0;
+
+                        countChecks++;
+                        int persistence = MathUtils.getPersistence(twos, threes, fives, sevens);
+
+                        // 1 for a single digit, 2 for a zero in the digits above the window
+                        if (persistence > 2) {
+                            String number = getSmallestPreimage(twos, threes, fives, sevens);
+                            String existing = results.get(persistence);
+                            if (existing == null || compare(number, existing) < 0) {
+                                results.put(persistence, number);
+                            }
+                        }
+                    }
+
+                    multiply(window, inner);
+                }
+
+                multiply(threesWindow, 3);
+            }
+
+            multiply(sevensWindow, 7);
+        }
+
+        counters.addCandidates(countCandidates);
+        counters.addChecks(countChecks);
+    }
+
+    private static long[] newWindow() {
+        long[] window = new long[WINDOW_LIMBS];
+        window[0] = 1;
+        return window;
+    }
+
+    /**
+     * Multiply the number modulo 10^WINDOW_DIGITS which is stored in limbs of
+     * 18 digits, lowest limb first, by a single digit.
+     */
+    private static void multiply(long[] window, int digit) {
+        if (digit == 2) {
+            // the most frequent case, the carry is at most 1, so no division is needed
+            long carry = 0;
+            for (int i = 0; i < window.length; i++) {
+                long value = (window[i] << 1) + carry;
+                carry = value >= LIMB ? 1 : 0;
+                window[i] = value - carry * LIMB;
+            }
+            return;
+        }
+
+        // a limb is below 10^18, so limb * 9 + carry still fits into a long
+        long carry = 0;
+        for (int i = 0; i < window.length; i++) {
+            long value = window[i] * digit + carry;
+            carry = value / LIMB;
+            window[i] = value % LIMB;
+        }
+    }
+
+    /**
+     * @param digits How many of the digits in the window belong to the number, the others are leading zeros
+     * @return False if one of the digits is zero, true if they are not or the number has more digits
+     */
+    private static boolean isZeroFree(long[] window, int digits) {
+        for (int i = 0; i < window.length && digits > 0; i++, digits -= PowersOfTen.LONG_DIGITS) {
+            if (MathUtils.containsZero(window[i], Math.min(digits, PowersOfTen.LONG_DIGITS))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int compare(String number, String other) {
+        int result = Integer.compare(number.length(), other.length());
+        return result != 0 ? result : number.compareTo(other);
+    }
+
+    /**
+     * Build the smallest number where the product of digits is 2^twos * 3^threes * 5^fives * 7^sevens,
+     * i.e. with as few digits as possible by taking large digits first and then sorting them.
+     *
+     * E.g. (0, 3, 0, 0) =&gt; 39, (2, 1, 0, 0) =&gt; 26, (19, 4, 0, 6) =&gt; 277777788888899
+     *
+     * @return The number with digits in ascending order, "1" if all exponents are 0
+     */
+    public static String getSmallestPreimage(int twos, int threes, int fives, int sevens) {
+        if (twos < 0 || threes < 0 || fives < 0 || sevens < 0) {
+            throw new IllegalArgumentException("Exponents cannot be negative, but had: " +
+                    twos + ", " + threes + ", " + fives + ", " + sevens);
+        }
+        if (twos == 0 && threes == 0 && fives == 0 && sevens == 0) {
+            return "1";
+        }
+
+        int[] counts = new int[10];
+        counts[9] = threes / 2;
+        counts[8] = twos / 3;
+        counts[7] = sevens;
+        counts[5] = fives;
+
+        // at most two 2s and one 3 are left, combine them into as few digits as possible
+        int remainingTwos = twos % 3;
+        int remainingThrees = threes % 2;
+        if (remainingTwos > 0 && remainingThrees > 0) {
+            counts[6] = 1;
+            remainingTwos--;
+            remainingThrees = 0;
+        }
+        if (remainingTwos == 2) {
+            counts[4] = 1;
+            remainingTwos = 0;
+        }
+        counts[3] = remainingThrees;
+        counts[2] = remainingTwos;
+
+        StringBuilder number = new StringBuilder();
+        for (int digit = 2; digit <= 9; digit++) {
+            number.append(String.valueOf((char) (digit + 0x30)).repeat(counts[digit]));
+        }
+        return number.toString();
+    }
+}
@@ -0,0 +1,164 @@
+package org.dstadler.multiplication;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe cache which maps the product of the digits of a number,
+ * given as exponents of 2^a * 3^b * 5^c * 7^d, to the persistence of such numbers.
+ *
+ * As many candidates lead to the same product, this avoids computing the same
+ * chain of products over and over again.
+ *
+ * Exponents and persistence are packed into one long per entry, so entries are
+ * read and written atomically without any locking. The cache is organized in
+ * sets of 4 entries, when a set is full, one of the entries is replaced, chosen
+ * pseudo-randomly per thread, so a frequently used entry is not always evicted by the same key.
+ */
+public class PersistenceCache {
+    // 14 bits for each exponent, 6 bits for the persistence
+    private static final int EXPONENT_BITS = 14;
+    private static final int MAX_EXPONENT = (1 << EXPONENT_BITS) - 1;
+    private static final int VALUE_BITS = 6;
+    private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+
+    private static final int WAYS = 4;
+
+    private final AtomicLongArray entries;
+    private final int setMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity The maximum number of entries, rounded up to a power of two, at least 4
+     */
+    public PersistenceCache(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+
+        int size = Math.max(WAYS, Integer.highestOneBit(capacity - 1) << 1);
+        entries = new AtomicLongArray(size);
+        setMask = size / WAYS - 1;
+    }
+
+    /**
+     * Look up the persistence for the given exponents.
+     *
+     * @param twos The exponent of 2 in the product of the digits
+     * @param threes The exponent of 3 in the product of the digits
+     * @param fives The exponent of 5 in the product of the digits
+     * @param sevens The exponent of 7 in the product of the digits
+     * @return The persistence or -1 if it is not cached
+     */
+    public int get(int twos, int threes, int fives, int sevens) {
+        long key = key(twos, threes, fives, sevens);
+        if (key == -1) {
+            misses.increment();
+            return -1;
+        }
+
+        int base = (hash(key) & setMask) * WAYS;
+        for (int i = 0; i < WAYS; i++) {
+            long entry = entries.get(base + i);
+            if (entry != 0 && (entry >>> VALUE_BITS) == key) {
+                hits.increment();
+                return (int) (entry & VALUE_MASK);
+            }
+        }
+
+        misses.increment();
+        return -1;
+    }
+
+    /**
+     * Store the persistence for the given exponents, exponents which are too
+     * large to be packed are silently ignored.
+     *
+     * @param twos The exponent of 2 in the product of the digits
+     * @param threes The exponent of 3 in the product of the digits
+     * @param fives The exponent of 5 in the product of the digits
+     * @param sevens The exponent of 7 in the product of the digits
+     * @param persistence The persistence of numbers with this product, 1 to 63
+     */
+    public void put(int twos, int threes, int fives, int sevens, int persistence) {
+        if (persistence <= 0 || persistence > VALUE_MASK) {
+            throw new IllegalArgumentException("Invalid persistence: " + persistence);
+        }
+
+        long key = key(twos, threes, fives, sevens);
+        if (key == -1) {
+            return;
+        }
+
+        long entry = (key << VALUE_BITS) | persistence;
+        int base = (hash(key) & setMask) * WAYS;
+        for (int i = 0; i < WAYS; i++) {
+            long existing = entries.get(base + i);
+            if (existing == 0) {
+                if (entries.compareAndSet(base + i, 0, entry)) {
+                    return;
+                }
+                existing = entries.get(base + i);
+            }
+            if ((existing >>> VALUE_BITS) == key) {
+                return;
+            }
+        }
+
+        // set is full, replace one of the entries
+        entries.set(base + ThreadLocalRandom.current().nextInt(WAYS), entry);
+        evictions.increment();
+    }
+
+    private static long key(int twos, int threes, int fives, int sevens) {
+        if ((twos | threes | fives | sevens) < 0 ||
+                twos > MAX_EXPONENT || threes > MAX_EXPONENT || fives > MAX_EXPONENT || sevens > MAX_EXPONENT) {
+            return -1;
+        }
+
+        return ((long) twos << (3 * EXPONENT_BITS)) | ((long) threes << (2 * EXPONENT_BITS)) |
+                ((long) fives << EXPONENT_BITS) | sevens;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * @return The number of entries which can be stored at most
+     */
+    public int getCapacity() {
+        return entries.length();
+    }
+
+    /**
+     * @return How often a lookup found an entry
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return How often a lookup did not find an entry
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return How often an entry was replaced because its set was full
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits: %,d, misses: %,d, evictions: %,d", getHits(), getMisses(), getEvictions());
+    }
+}
@@ -0,0 +1,79 @@
+package org.dstadler.multiplication;
+
+import java.math.BigInteger;
+
+/**
+ * Thread-safe cache of powers of ten which are needed for converting
+ * BigIntegers into decimal digits.
+ *
+ * Entries are computed lazily on first use and never change afterwards.
+ */
+class PowersOfTen {
+    // 10^18 is the largest power of ten that still fits into a long
+    static final int LONG_DIGITS = 18;
+
+    private static volatile BigInteger[] squares = { BigInteger.TEN.pow(LONG_DIGITS) };
+
+    // larger powers are not kept as all of them together would need a lot of memory
+    private static final int MAX_CACHED_POWER = 1 << 11;
+
+    private static volatile BigInteger[] powers = { BigInteger.ONE };
+
+    private PowersOfTen() {
+    }
+
+    /**
+     * @param level The level, 0 for 10^18, 1 for 10^36, 2 for 10^72, ...
+     * @return 10^(18 * 2^level)
+     */
+    static BigInteger getSquare(int level) {
+        BigInteger[] local = squares;
+        if (level < local.length) {
+            return local[level];
+        }
+
+        synchronized (PowersOfTen.class) {
+            local = squares;
+            if (level >= local.length) {
+                BigInteger[] grown = new BigInteger[level + 1];
+                System.arraycopy(local, 0, grown, 0, local.length);
+                for (int i = local.length; i <= level; i++) {
+                    grown[i] = grown[i - 1].multiply(grown[i - 1]);
+                }
+                squares = grown;
+                local = grown;
+            }
+            return local[level];
+        }
+    }
+
+    /**
+     * @param exponent The exponent, not negative
+     * @return 10^exponent, cached for exponents up to {@link #MAX_CACHED_POWER}
+     */
+    static BigInteger pow(int exponent) {
+        BigInteger[] local = powers;
+        if (exponent < local.length) {
+            return local[exponent];
+        }
+        if (exponent > MAX_CACHED_POWER) {
+            return BigInteger.TEN.pow(exponent);
+        }
+
+        synchronized (PowersOfTen.class) {
+            local = powers;
+            if (exponent >= local.length) {
+                // grow by at least half to not copy the array too often
+                int length = Math.min(MAX_CACHED_POWER, Math.max(exponent, local.length + local.length / 2)) + 1;
+                BigInteger[] grown = new BigInteger[length];
+                System.arraycopy(local, 0, grown, 0, local.length);
+                for (int i = local.length; i < length; i++) {
+                    grown[i] = grown[i - 1].multiply(BigInteger.TEN);
+                }
+                powers = grown;
+                local = grown;
+            }
+            return local[exponent];
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package org.dstadler.multiplication;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Factorization of BigIntegers in stages:
+ *
+ * <ol>
+ * <li>2, 3, 5 and 7 are divided out via shifts and precomputed powers, products of digits only consist of these</li>
+ * <li>trial division by the primes below {@link #SMALL_PRIME_LIMIT} from a sieve</li>
+ * <li>larger cofactors are checked for being prime and otherwise split via Pollard-Brent rho</li>
+ * </ol>
+ */
+class PrimeFactors {
+    private static final int SMALL_PRIME_LIMIT = 1 << 16;
+    private static final int[] SMALL_PRIMES = sieve(SMALL_PRIME_LIMIT);
+
+    // the factors 3, 5 and 7 with p^1, p^2, p^4, ... p^64 for removing them with few divisions
+    private static final int[] SMOOTH_PRIMES = { 3, 5, 7 };
+    private static final BigInteger[][] SMOOTH_POWERS = new BigInteger[SMOOTH_PRIMES.length][7];
+    static {
+        for (int i = 0; i < SMOOTH_PRIMES.length; i++) {
+            SMOOTH_POWERS[i][0] = BigInteger.valueOf(SMOOTH_PRIMES[i]);
+            for (int k = 1; k < SMOOTH_POWERS[i].length; k++) {
+                SMOOTH_POWERS[i][k] = SMOOTH_POWERS[i][k - 1].multiply(SMOOTH_POWERS[i][k - 1]);
+            }
+        }
+    }
+
+    // Miller-Rabin with a chance of less than 2^-100 for wrongly reporting a prime
+    private static final int CERTAINTY = 100;
+
+    // how many steps of rho are multiplied before computing the gcd
+    private static final int BRENT_BATCH = 128;
+
+    private PrimeFactors() {
+    }
+
+    /**
+     * @param n The number to factor
+     * @return A sorted list of all prime factors, empty for numbers below 2
+     */
+    static List<BigInteger> factor(BigInteger n) {
+        List<BigInteger> factors = new ArrayList<>();
+        if (n.compareTo(BigInteger.TWO) < 0) {
+            return factors;
+        }
+
+        int twos = n.getLowestSetBit();
+        factors.addAll(Collections.nCopies(twos, BigInteger.TWO));
+        n = n.shiftRight(twos);
+
+        for (int i = 0; i < SMOOTH_PRIMES.length; i++) {
+            n = divideSmooth(n, i, factors);
+        }
+
+        n = divideSmallPrimes(n, factors);
+
+        if (!n.equals(BigInteger.ONE)) {
+            factorLarge(n, factors);
+        }
+
+        Collections.sort(factors);
+        return factors;
+    }
+
+    /**
+     * Divide by the highest powers of the prime first, so a factor
+     * which appears k times only needs about log2(k) divisions.
+     */
+    private static BigInteger divideSmooth(BigInteger n, int prime, List<BigInteger> factors) {
+        BigInteger[] powers = SMOOTH_POWERS[prime];
+        int count = 0;
+        for (int k = powers.length - 1; k >= 0; k--) {
+            while (true) {
+                BigInteger[] result = n.divideAndRemainder(powers[k]);
+                if (result[1].signum() != 0) {
+                    break;
+                }
+
+                n = result[0];
+                count += 1 << k;
+
+                // all but the highest power can divide at most once
+                if (k < powers.length - 1) {
+                    break;
+                }
+            }
+        }
+
+        factors.addAll(Collections.nCopies(count, powers[0]));
+        return n;
+    }
+
+    private static BigInteger divideSmallPrimes(BigInteger n, List<BigInteger> factors) {
+        // 2, 3, 5 and 7 are already divided out
+        for (int i = 4; i < SMALL_PRIMES.length; i++) {
+            int prime = SMALL_PRIMES[i];
+
+            // use long arithmetic as soon as the number is small enough
+            if (n.bitLength() < Long.SIZE - 1) {
+                return BigInteger.valueOf(divideSmallPrimes(n.longValueExact(), i, factors));
+            }
+
+            if (n.mod(BigInteger.valueOf(prime)).signum() == 0) {
+                BigInteger p = BigInteger.valueOf(prime);
+                BigInteger[] result;
+                while ((result = n.divideAndRemainder(p))[1].signum() == 0) {
+                    factors.add(p);
+                    n = result[0];
+                }
+            }
+        }
+
+        return n;
+    }
+
+    private static long divideSmallPrimes(long n, int start, List<BigInteger> factors) {
+        for (int i = start; i < SMALL_PRIMES.length; i++) {
+            long prime = SMALL_PRIMES[i];
+
+            // no more factors below the square root
+            if (prime * prime > n) {
+                if (n > 1) {
+                    factors.add(BigInteger.valueOf(n));
+                }
+                return 1;
+            }
+
+            while (n % prime == 0) {
+                factors.add(BigInteger.valueOf(prime));
+                n /= prime;
+            }
+        }
+
+        return n;
+    }
+
+    private static void factorLarge(BigInteger n, List<BigInteger> factors) {
+        // only large factors remain, so a number below the square of the largest small prime is prime
+        if (n.bitLength() <= 32 || n.isProbablePrime(CERTAINTY)) {
+            factors.add(n);
+            return;
+        }
+
+        BigInteger divisor = pollardBrent(n);
+        factorLarge(divisor, factors);
+        factorLarge(n.divide(divisor), factors);
+    }
+
+    /**
+     * Find a non-trivial divisor of a composite number via Brent's variant of
+     * Pollard's rho algorithm, see https://en.wikipedia.org/wiki/Pollard%27s_rho_algorithm#Variants
+     *
+     * The constant of the polynomial is increased on each failure, so the result is deterministic.
+     */
+    private static BigInteger pollardBrent(BigInteger n) {
+        for (long c = 1; ; c++) {
+            BigInteger constant = BigInteger.valueOf(c);
+            BigInteger y = BigInteger.TWO;
+            BigInteger x;
+            BigInteger ys;
+            BigInteger q = BigInteger.ONE;
+            BigInteger g;
+            int r = 1;
+            do {
+                x = y;
+                for (int i = 0; i < r; i++) {
+                    y = y.multiply(y).add(constant).mod(n);
+                }
+
+                int k = 0;
+                do {
+                    ys = y;
+                    for (int i = 0; i < Math.min(BRENT_BATCH, r - k); i++) {
+                        y = y.multiply(y).add(constant).mod(n);
+                        q = q.multiply(x.subtract(y).abs()).mod(n);
+                    }
+                    g = q.gcd(n);
+                    k += BRENT_BATCH;
+                } while (k < r && g.equals(BigInteger.ONE));
+
+                r *= 2;
+            } while (g.equals(BigInteger.ONE));
+
+            // the batch overshot, repeat the last steps one by one
+            if (g.equals(n)) {
+                do {
+                    ys = ys.multiply(ys).add(constant).mod(n);
+                    g = x.subtract(ys).abs().gcd(n);
+                } while (g.equals(BigInteger.ONE));
+            }
+
+            if (!g.equals(n)) {
+                return g;
+            }
+        }
+    }
+
+    private static int[] sieve(int limit) {
+        boolean[] composite = new boolean[limit];
+        int count = 0;
+        for (int i = 2; i < limit; i++) {
+            if (!composite[i]) {
+                count++;
+                for (long j = (long) i * i; j < limit; j += i) {
+                    composite[(int) j] = true;
+                }
+            }
+        }
+
+        int[] primes = new int[count];
+        for (int i = 2, j = 0; i < limit; i++) {
+            if (!composite[i]) {
+                primes[j++] = i;
+            }
+        }
+        return primes;
+    }
+}
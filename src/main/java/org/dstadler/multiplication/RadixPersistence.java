@@ -0,0 +1,453 @@
+package org.dstadler.multiplication;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Multiplicative persistence in other bases than 10, numbers are stored like for
+ * {@link MultiplicativeDigitalRootByteArray}: digits in a byte-array in reverse order,
+ * unused entries are "-1".
+ *
+ * For bases which are a power of two, digits are extracted via shifts and masks,
+ * for other bases numbers are split recursively by powers of the base like in
+ * {@link MathUtils#toByteArray(byte[], BigInteger)}.
+ *
+ * The candidate-rules of base 10 are generalized to any base, in base 10 they
+ * reject slightly more numbers than {@link MultiplicativeDigitalRootByteArray#candidate(byte[])},
+ * e.g. 24 or 45, which never lead to a higher persistence than smaller numbers:
+ *
+ * <ul>
+ * <li>all digits are at least 2 and in ascending order</li>
+ * <li>the two smallest digits cannot be replaced by one digit, e.g. 2 and 3 by 6 in base 10</li>
+ * <li>the product of the digits is not divisible by the base, e.g. 2 and 5 in base 10,
+ *     as it would end with a zero</li>
+ * </ul>
+ *
+ * E.g. in base 16: 2f =&gt; 1e =&gt; e, so the persistence of 0x2f is 2
+ */
+public class RadixPersistence {
+    /** In base 2 there are no digits above 1, so the persistence is at most 1 */
+    public static final int MIN_BASE = 3;
+
+    /** The largest base where digits can still be written as characters */
+    public static final int MAX_BASE = Character.MAX_RADIX;
+
+    // exponents of up to 3 prime factors of the base are summed up in fields of 21 bits
+    private static final int FIELD_BITS = 21;
+    private static final long FIELD_MASK = (1L << FIELD_BITS) - 1;
+
+    private final int base;
+
+    // log2 of the base if it is a power of two, otherwise 0
+    private final int shift;
+    private final int mask;
+
+    // how many digits fit into a long at the lowest level of the conversion
+    private final int chunkDigits;
+    private volatile BigInteger[] squares;
+
+    // how often each prime factor of the base divides the base and each digit
+    private final int[] baseExponents;
+    private final long[] digitExponents;
+
+    /**
+     * @param base The base of the numbers, between {@link #MIN_BASE} and {@link #MAX_BASE}
+     */
+    public RadixPersistence(int base) {
+        if (base < MIN_BASE || base > MAX_BASE) {
+            throw new IllegalArgumentException("Base needs to be between " + MIN_BASE + " and " + MAX_BASE +
+                    ", but had: " + base);
+        }
+
+        this.base = base;
+        if (Integer.bitCount(base) == 1) {
+            shift = Integer.numberOfTrailingZeros(base);
+            mask = base - 1;
+        } else {
+            shift = 0;
+            mask = 0;
+        }
+
+        // base^chunkDigits still fits into a long
+        int digits = 0;
+        long power = 1;
+        while (power <= Long.MAX_VALUE / base) {
+            power *= base;
+            digits++;
+        }
+        chunkDigits = digits;
+        squares = new BigInteger[] { BigInteger.valueOf(power) };
+
+        int[] primes = new int[3];
+        int[] exponents = new int[3];
+        int count = 0;
+        for (int p = 2, n = base; n > 1; p++) {
+            if (n % p == 0) {
+                primes[count] = p;
+                for (; n % p == 0; n /= p) {
+                    exponents[count]++;
+                }
+                count++;
+            }
+        }
+        baseExponents = Arrays.copyOf(exponents, count);
+
+        digitExponents = new long[base];
+        for (int digit = 1; digit < base; digit++) {
+            for (int i = 0; i < count; i++) {
+                long exponent = 0;
+                for (int n = digit; n % primes[i] == 0; n /= primes[i]) {
+                    exponent++;
+                }
+                digitExponents[digit] |= exponent << (i * FIELD_BITS);
+            }
+        }
+    }
+
+    public int getBase() {
+        return base;
+    }
+
+    /**
+     * Compute the multiplicative persistence of a number in this base.
+     *
+     * E.g. in base 16: 10 =&gt; 1, 2f =&gt; 2
+     *
+     * @param inputOrig The number as a byte array, lower digits at the beginning, unused entries are "-1"
+     * @return How many times the multiplicative digital root can be computed on this number.
+     */
+    public int getPersistence(byte[] inputOrig) {
+        byte[] input = Arrays.copyOf(inputOrig, inputOrig.length);
+
+        int persistence = 1;
+        while (true) {
+            // usually the product fits into a long, then the rest of the chain does as well
+            long small = getSmallProduct(input);
+            if (small >= 0) {
+                return small < base ? persistence : persistence + getPersistence(small);
+            }
+
+            BigInteger product = getProduct(input);
+            if (product.signum() == 0) {
+                // a zero digit after the product did not fit into a long anymore
+                return persistence;
+            }
+
+            persistence++;
+
+            toByteArray(input, product);
+        }
+    }
+
+    /**
+     * @param number The number, not negative
+     * @return How many times the multiplicative digital root can be computed on this number.
+     */
+    public int getPersistence(long number) {
+        if (number < 0) {
+            throw new IllegalArgumentException("Number cannot be negative, but had: " + number);
+        }
+
+        int persistence = 1;
+        while (true) {
+            number = getProduct(number);
+
+            // stop when we have reached a single-digit number
+            if (number < base) {
+                return persistence;
+            }
+
+            persistence++;
+        }
+    }
+
+    /**
+     * @param number The number, not negative
+     * @return How many times the multiplicative digital root can be computed on this number.
+     */
+    public int getPersistence(BigInteger number) {
+        if (number.signum() < 0) {
+            throw new IllegalArgumentException("Number cannot be negative, but had: " + number);
+        }
+
+        byte[] digits = new byte[getMaxDigits(number) + 1];
+        toByteArray(digits, number);
+        return getPersistence(digits);
+    }
+
+    /**
+     * @return The product of the digits in this base, which is never larger than the number itself
+     */
+    private long getProduct(long number) {
+        long product = 1;
+        if (shift > 0) {
+            do {
+                product *= number & mask;
+                number >>>= shift;
+            } while (number != 0 && product != 0);
+        } else {
+            do {
+                product *= number % base;
+                number /= base;
+            } while (number != 0 && product != 0);
+        }
+        return product;
+    }
+
+    /**
+     * @return The product of the digits, 0 if there is a zero digit before the product
+     *      overflows or -1 if it does not fit into a long
+     */
+    private static long getSmallProduct(byte[] input) {
+        long product = 1;
+        for (int i = 0; i < input.length && input[i] != -1; i++) {
+            long low = product * input[i];
+            if (Math.multiplyHigh(product, input[i]) != 0 || low < 0) {
+                return -1;
+            }
+            if (low == 0) {
+                return 0;
+            }
+            product = low;
+        }
+        return product;
+    }
+
+    private BigInteger getProduct(byte[] input) {
+        BigInteger product = BigInteger.ONE;
+
+        // collect digits in a long and only move them into the BigInteger when it is full
+        long chunk = 1;
+        for (int i = 0; i < input.length && input[i] != -1; i++) {
+            if (input[i] == 0) {
+                return BigInteger.ZERO;
+            }
+
+            if (chunk > Long.MAX_VALUE / base) {
+                product = product.multiply(BigInteger.valueOf(chunk));
+                chunk = 1;
+            }
+            chunk *= input[i];
+        }
+
+        return product.multiply(BigInteger.valueOf(chunk));
+    }
+
+    /**
+     * Convert the given BigInteger into a byte-array with digits in this base.
+     *
+     * @param number The array for storing the digits of the number in reverse order.
+     *               The byte-array needs to be large enough to hold all digits and the "-1"
+     * @param bigNumber The number to convert to the byte-array, not negative
+     * @throws ArrayIndexOutOfBoundsException if the byte-array is not large enough to
+     *          hold all digits of the bigNumber
+     */
+    public void toByteArray(byte[] number, BigInteger bigNumber) {
+        if (shift > 0) {
+            toByteArrayPowerOfTwo(number, bigNumber);
+            return;
+        }
+
+        // find the smallest level where the number is below base^(chunkDigits * 2^level)
+        int level = 0;
+        while (bigNumber.compareTo(getSquare(level)) >= 0) {
+            level++;
+        }
+
+        int digits = toByteArray(number, 0, bigNumber, level, false);
+        number[digits] = -1;
+    }
+
+    /**
+     * Take the digits directly from the bits of the number, lowest bits first.
+     */
+    private void toByteArrayPowerOfTwo(byte[] number, BigInteger bigNumber) {
+        int digits = Math.max(1, (bigNumber.bitLength() + shift - 1) / shift);
+
+        // big-endian, so the lowest bits are in the last byte
+        byte[] bytes = bigNumber.toByteArray();
+        int pos = bytes.length - 1;
+        long buffer = 0;
+        int bits = 0;
+        for (int i = 0; i < digits; i++) {
+            while (bits < shift && pos >= 0) {
+                buffer |= (long) (bytes[pos--] & 0xFF) << bits;
+                bits += Byte.SIZE;
+            }
+
+            number[i] = (byte) (buffer & mask);
+            buffer >>>= shift;
+            bits -= shift;
+        }
+        number[digits] = -1;
+    }
+
+    /**
+     * Write the digits of the given value which is below base^(chunkDigits * 2^level) at the given offset.
+     *
+     * @param pad If the digits should be padded with zeros to chunkDigits * 2^level digits
+     * @return The number of digits written
+     */
+    private int toByteArray(byte[] number, int offset, BigInteger value, int level, boolean pad) {
+        if (level == 0) {
+            long remaining = value.longValue();
+            int i = 0;
+            do {
+                number[offset + i] = (byte) (remaining % base);
+                remaining /= base;
+                i++;
+            } while (remaining > 0);
+
+            if (pad) {
+                for (; i < chunkDigits; i++) {
+                    number[offset + i] = 0;
+                }
+            }
+            return i;
+        }
+
+        BigInteger[] divideAndRemainder = value.divideAndRemainder(getSquare(level - 1));
+        BigInteger high = divideAndRemainder[0];
+        BigInteger low = divideAndRemainder[1];
+
+        // leading zeros are only written if requested
+        if (!pad && high.signum() == 0) {
+            return toByteArray(number, offset, low, level - 1, false);
+        }
+
+        int lowDigits = chunkDigits << (level - 1);
+        toByteArray(number, offset, low, level - 1, true);
+        return lowDigits + toByteArray(number, offset + lowDigits, high, level - 1, pad);
+    }
+
+    /**
+     * @return base^(chunkDigits * 2^level), computed on first use
+     */
+    private BigInteger getSquare(int level) {
+        BigInteger[] local = squares;
+        if (level < local.length) {
+            return local[level];
+        }
+
+        synchronized (this) {
+            local = squares;
+            if (level >= local.length) {
+                BigInteger[] grown = Arrays.copyOf(local, level + 1);
+                for (int i = local.length; i <= level; i++) {
+                    grown[i] = grown[i - 1].multiply(grown[i - 1]);
+                }
+                squares = grown;
+                local = grown;
+            }
+        }
+        return local[level];
+    }
+
+    /**
+     * @return At least the number of digits of the number in this base
+     */
+    private int getMaxDigits(BigInteger number) {
+        if (shift > 0) {
+            return Math.max(1, (number.bitLength() + shift - 1) / shift);
+        }
+
+        // base^digits >= 2^bitLength, one more in case of rounding
+        return (int) (number.bitLength() / (Math.log(base) / Math.log(2))) + 2;
+    }
+
+    /**
+     * @param number The byte-array which holds the digits of the number in reverse order.
+     * @return The number with digits 0-9 and a-z like {@link BigInteger#toString(int)}
+     */
+    public String toString(byte[] number) {
+        StringBuilder builder = new StringBuilder();
+        for (byte b : number) {
+            if (b == -1) {
+                break;
+            }
+            builder.append(Character.forDigit(b, base));
+        }
+        return builder.reverse().toString();
+    }
+
+    /**
+     * Increment to the next number with digits 2 to base - 1 in ascending order, all numbers in between
+     * contain "0" or "1" or have descending digits and thus are not candidates anyway.
+     *
+     * E.g. in base 16: 2 =&gt; 3, 2f =&gt; 33, ff =&gt; 222
+     *
+     * The byte-array should be initialized fully with "-1" values and only hold numbers which
+     * were the result of previous invocations of this method.
+     *
+     * @param number The current number as byte-array with digits in reverse order
+     * @param digits The position of the highest digit before incrementing, 0 for an empty byte-array
+     * @return The position of the highest digit after incrementing
+     * @throws IllegalStateException If there is no room for the next number and the "-1" after it
+     */
+    public int increment(byte[] number, int digits) {
+        for (int i = 0; i < number.length; i++) {
+            byte nr = number[i];
+
+            // all digits were the highest one, continue with one more digit
+            if (nr == -1) {
+                if (i + 1 >= number.length) {
+                    break;
+                }
+
+                // skip 0 and 1 as both are not seen as candidates anyway
+                Arrays.fill(number, 0, i + 1, (byte) 2);
+                return i;
+            }
+
+            // the lower digits cannot be lower than the incremented one
+            if (nr != base - 1) {
+                Arrays.fill(number, 0, i + 1, (byte) (nr + 1));
+                return digits;
+            }
+        }
+
+        throw new IllegalStateException("Cannot increment beyond " + (number.length - 1) + " digits");
+    }
+
+    /**
+     * Check if this number is a useful candidate for checking multiplicative persistence,
+     * see the rules in the class documentation.
+     *
+     * @param number The current number as byte-array with digits in reverse order
+     * @return true if this number can be checked for persistence or false if
+     *      it should be skipped.
+     * @throws IllegalStateException If the byte-array does not contain a "-1"
+     */
+    public boolean candidate(byte[] number) {
+        long exponents = 0;
+        int length = 0;
+        for (; length < number.length && number[length] != -1; length++) {
+            byte digit = number[length];
+
+            // from the highest digit the digits need to be ascending
+            if (digit < 2 || (length > 0 && digit > number[length - 1])) {
+                return false;
+            }
+
+            exponents += digitExponents[digit];
+        }
+
+        if (length == number.length) {
+            throw new IllegalStateException("Number has " + length + " digits without the terminating -1");
+        }
+
+        // the two smallest digits are the highest ones
+        if (length >= 2 && number[length - 1] * number[length - 2] < base) {
+            return false;
+        }
+
+        for (int i = 0; i < baseExponents.length; i++) {
+            if (((exponents >>> (i * FIELD_BITS)) & FIELD_MASK) < baseExponents[i]) {
+                return true;
+            }
+        }
+
+        // the product is divisible by the base
+        return false;
+    }
+}
@@ -0,0 +1,390 @@
+package org.dstadler.multiplication;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link SearchListener} which appends records and the end of a search to a binary
+ * journal-file, so results can be processed without parsing the output on the console.
+ *
+ * Events are only put into a bounded queue by the thread of the search, a background
+ * thread writes them in batches via a {@link FileChannel} and forces them to disk
+ * at most once per sync-interval.
+ *
+ * The file starts with a header, each entry is stored with its length and a checksum.
+ * An entry which was only written partially because of a crash is ignored by
+ * {@link #read(Path)} together with anything after it. When the journal is opened
+ * again, such a tail is cut off, so entries which are appended later can be read.
+ */
+public class ResultJournal implements SearchListener, Closeable {
+    /**
+     * The kind of event of an entry.
+     */
+    public enum Type {
+        RECORD,
+        FINISHED
+    }
+
+    // written entries are forced to disk at most this often by default
+    public static final long DEFAULT_SYNC_INTERVAL_MS = 1000;
+
+    private static final int MAGIC = 0x4D44524A;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+
+    // length, type, persistence, elapsed, candidates, checks, time, checksum without the number itself
+    private static final int ENTRY_FIELDS_SIZE = 4 + 1 + 4 + 8 + 8 + 8 + 8 + 4;
+
+    private static final int QUEUE_CAPACITY = 1024;
+
+    // marks the end of the queue when the journal is closed
+    private static final Entry CLOSE = new Entry(Type.FINISHED, 0, "", 0, 0, 0, 0);
+
+    private final FileChannel channel;
+    private final long syncIntervalMillis;
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
+
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    /**
+     * One event of a search.
+     */
+    public static class Entry {
+        private final Type type;
+        private final int persistence;
+        private final String number;
+        private final long elapsed;
+        private final long candidates;
+        private final long checks;
+        private final long time;
+
+        /**
+         * @param type The kind of event
+         * @param persistence The persistence of the record or the highest persistence at the end of the search
+         * @param number The number of the record, empty at the end of the search
+         * @param elapsed The milliseconds spent in the search so far
+         * @param candidates How many numbers were enumerated so far
+         * @param checks For how many numbers the persistence was computed so far
+         * @param time When the event happened in milliseconds since the epoch
+         */
+        public Entry(Type type, int persistence, String number, long elapsed, long candidates, long checks, long time) {
+            this.type = type;
+            this.persistence = persistence;
+            this.number = number;
+            this.elapsed = elapsed;
+            this.candidates = candidates;
+            this.checks = checks;
+            this.time = time;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public int getPersistence() {
+            return persistence;
+        }
+
+        public String getNumber() {
+            return number;
+        }
+
+        public long getElapsed() {
+            return elapsed;
+        }
+
+        public long getCandidates() {
+            return candidates;
+        }
+
+        public long getChecks() {
+            return checks;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            return type + "," + persistence + "," + number + "," + elapsed + "," + candidates + "," + checks + "," + time;
+        }
+    }
+
+    private ResultJournal(Path file, long syncIntervalMillis) throws IOException {
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            write(header);
+            channel.force(false);
+        } else {
+            truncateAfterLastEntry(file);
+        }
+
+        writer = new Thread(this::writeEntries, "result-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Cut off an entry which was written partially before a crash and anything after it,
+     * otherwise all entries which are appended now could not be read.
+     */
+    private void truncateAfterLastEntry(Path file) throws IOException {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            checkHeader(buffer, file);
+
+            int end = readEntries(buffer, new ArrayList<>());
+            if (end < channel.size()) {
+                channel.truncate(end);
+                channel.force(false);
+            }
+            channel.position(end);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void checkHeader(ByteBuffer buffer, Path file) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not a journal-file: " + file);
+        }
+    }
+
+    /**
+     * Open the journal-file for appending, the file is created if it does not exist yet.
+     *
+     * @param file The file for storing the entries
+     * @param syncIntervalMillis How often written entries are forced to disk at most, 0 for
+     *                           forcing them after each batch
+     * @return The opened journal
+     * @throws IOException If the file cannot be opened
+     */
+    public static ResultJournal open(Path file, long syncIntervalMillis) throws IOException {
+        if (syncIntervalMillis < 0) {
+            throw new IllegalArgumentException("Sync interval cannot be negative, but had: " + syncIntervalMillis);
+        }
+        return new ResultJournal(file, syncIntervalMillis);
+    }
+
+    @Override
+    public void recordFound(int persistence, String number, SearchCounters counters) {
+        add(new Entry(Type.RECORD, persistence, number, counters.getElapsedMillis(),
+                counters.getCandidates(), counters.getChecks(), System.currentTimeMillis()));
+    }
+
+    @Override
+    public void finished(int maxPersistence, SearchCounters counters) {
+        add(new Entry(Type.FINISHED, maxPersistence, "", counters.getElapsedMillis(),
+                counters.getCandidates(), counters.getChecks(), System.currentTimeMillis()));
+    }
+
+    private void add(Entry entry) {
+        if (closed) {
+            throw new IllegalStateException("Journal is already closed");
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Writing the journal failed", failure);
+        }
+
+        try {
+            // only blocks if the writer falls behind by a whole queue of entries
+            queue.put(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while adding entry " + entry, e);
+        }
+    }
+
+    private void writeEntries() {
+        List<Entry> batch = new ArrayList<>();
+        long lastSync = System.currentTimeMillis();
+        boolean unsynced = false;
+        try {
+            while (true) {
+                Entry first = queue.poll(Math.max(1, syncIntervalMillis), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+
+                    boolean close = batch.remove(CLOSE);
+                    if (!batch.isEmpty()) {
+                        write(encode(batch));
+                        unsynced = true;
+                        batch.clear();
+                    }
+
+                    if (close) {
+                        break;
+                    }
+                }
+
+                long now = System.currentTimeMillis();
+                if (unsynced && now - lastSync >= syncIntervalMillis) {
+                    channel.force(false);
+                    unsynced = false;
+                    lastSync = now;
+                }
+            }
+
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ByteBuffer encode(List<Entry> entries) {
+        int size = 0;
+        List<byte[]> numbers = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            byte[] number = entry.getNumber().getBytes(StandardCharsets.US_ASCII);
+            numbers.add(number);
+            size += ENTRY_FIELDS_SIZE + number.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            byte[] number = numbers.get(i);
+
+            int start = buffer.position();
+            buffer.putInt(ENTRY_FIELDS_SIZE + number.length);
+            buffer.put((byte) entry.getType().ordinal());
+            buffer.putInt(entry.getPersistence());
+            buffer.putLong(entry.getElapsed());
+            buffer.putLong(entry.getCandidates());
+            buffer.putLong(entry.getChecks());
+            buffer.putLong(entry.getTime());
+            buffer.put(number);
+
+            crc.reset();
+            crc.update(buffer.array(), start, buffer.position() - start);
+            buffer.putInt((int) crc.getValue());
+        }
+
+        return buffer.flip();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Read all complete entries of a journal-file.
+     *
+     * @param file The journal-file
+     * @return The entries in the order in which they were written
+     * @throws IOException If the file cannot be read or is not a journal-file
+     */
+    public static List<Entry> read(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        checkHeader(buffer, file);
+
+        List<Entry> entries = new ArrayList<>();
+        readEntries(buffer, entries);
+        return entries;
+    }
+
+    /**
+     * @param buffer The content of the file, positioned after the header
+     * @param entries Receives the complete entries
+     * @return The position after the last complete entry
+     */
+    private static int readEntries(ByteBuffer buffer, List<Entry> entries) {
+        CRC32 crc = new CRC32();
+        Type[] types = Type.values();
+        int end = buffer.position();
+        try {
+            while (buffer.hasRemaining()) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                if (length < ENTRY_FIELDS_SIZE || length > buffer.remaining() + 4) {
+                    break;
+                }
+
+                crc.reset();
+                crc.update(buffer.array(), start, length - 4);
+                if (buffer.getInt(start + length - 4) != (int) crc.getValue()) {
+                    break;
+                }
+
+                int ordinal = buffer.get();
+                if (ordinal < 0 || ordinal >= types.length) {
+                    break;
+                }
+                Type type = types[ordinal];
+                int persistence = buffer.getInt();
+                long elapsed = buffer.getLong();
+                long candidates = buffer.getLong();
+                long checks = buffer.getLong();
+                long time = buffer.getLong();
+                String number = new String(buffer.array(), buffer.position(), length - ENTRY_FIELDS_SIZE, StandardCharsets.US_ASCII);
+
+                entries.add(new Entry(type, persistence, number, elapsed, candidates, checks, time));
+                end = start + length;
+                buffer.position(end);
+            }
+        } catch (BufferUnderflowException e) {
+            // the last entry was not written completely
+        }
+
+        return end;
+    }
+
+    /**
+     * Write all pending entries, force them to disk and close the file.
+     *
+     * @throws IOException If writing any of the entries failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            // the writer does not take entries any more if it failed
+            while (!queue.offer(CLOSE, 100, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) {
+                    break;
+                }
+            }
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the journal", e);
+        } finally {
+            channel.close();
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
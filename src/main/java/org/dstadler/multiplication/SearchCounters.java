@@ -0,0 +1,75 @@
+package org.dstadler.multiplication;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 64-bit counters of a search which can be updated from many threads
+ * without contention and read at any time.
+ *
+ * Searches usually count in local variables and add to these counters
+ * in batches, so the counters may lag behind a bit while the search is running.
+ */
+public class SearchCounters {
+    private final LongAdder candidates = new LongAdder();
+    private final LongAdder checks = new LongAdder();
+    private final long start;
+
+    public SearchCounters() {
+        this(System.currentTimeMillis());
+    }
+
+    /**
+     * @param start The time when the search started in milliseconds since the epoch,
+     *              can be in the past when a search is resumed.
+     */
+    public SearchCounters(long start) {
+        this.start = start;
+    }
+
+    /**
+     * @param count How many more numbers were enumerated
+     */
+    public void addCandidates(long count) {
+        candidates.add(count);
+    }
+
+    /**
+     * @param count For how many more numbers the persistence was computed
+     */
+    public void addChecks(long count) {
+        checks.add(count);
+    }
+
+    /**
+     * @return How many numbers were enumerated
+     */
+    public long getCandidates() {
+        return candidates.sum();
+    }
+
+    /**
+     * @return For how many numbers the persistence was computed
+     */
+    public long getChecks() {
+        return checks.sum();
+    }
+
+    /**
+     * @return The time when the search started in milliseconds since the epoch
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return How many milliseconds passed since the search started
+     */
+    public long getElapsedMillis() {
+        return System.currentTimeMillis() - start;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("candidates: %,d, checked: %,d, elapsed: %,dms", getCandidates(), getChecks(), getElapsedMillis());
+    }
+}
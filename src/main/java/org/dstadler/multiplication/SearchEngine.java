@@ -0,0 +1,1096 @@
+package org.dstadler.multiplication;
+
+import static org.dstadler.multiplication.MathUtils.MAX_DIGITS;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Searches the smallest number for each multiplicative persistence with one of the
+ * representations of the sample applications.
+ *
+ * All state is kept in the instance, so multiple searches can run in the same JVM.
+ * Use {@link #builder()} to configure a search, e.g.
+ *
+ * <pre>
+ * SearchEngine.builder().representation(Representation.HISTOGRAM).targetPersistence(11).threads(4).build().run()
+ * </pre>
+ *
+ * A search stops when a number with the target persistence is found, when all numbers up to
+ * the digit bound are checked, when the time budget is used up or when {@link #cancel()} is called.
+ *
+ * With {@link Representation#HISTOGRAM} only a range of candidates can be checked, see
+ * {@link Builder#fromRank(long)}, so a search can be split up or continued without
+ * enumerating all smaller numbers again. With {@link Builder#workDirectory(Path)} multiple processes
+ * search consecutive chunks of ranks, which are coordinated via a {@link WorkCoordinator}.
+ *
+ * The byte-array representations can store their state in a {@link Checkpoint} periodically
+ * and continue from there, see {@link Builder#checkpoint(Checkpoint)}.
+ */
+public class SearchEngine {
+    /**
+     * How numbers are represented and enumerated.
+     */
+    public enum Representation {
+        /** Digits in a char-array, the persistence is computed via Strings and BigIntegers, see {@link MultiplicativeDigitalRoot} */
+        STRING,
+        /** Reversed digits in a byte-array, see {@link MultiplicativeDigitalRootByteArray} */
+        BYTE_ARRAY,
+        /** Digits encapsulated in a {@link ByteArrayInteger}, see {@link MultiplicativeDigitalRootClass} */
+        BYTE_ARRAY_INTEGER,
+        /** Only the counts of digits via {@link DigitHistogram}, see {@link MultiplicativeDigitalRootHistogram} */
+        HISTOGRAM
+    }
+
+    /**
+     * Why a search stopped.
+     */
+    public enum StopReason {
+        TARGET_REACHED,
+        DIGIT_LIMIT,
+        RANK_LIMIT,
+        TIME_BUDGET,
+        CANCELLED
+    }
+
+    // same restriction as the increment in MultiplicativeDigitalRootByteArray:
+    // all digits except the first two need to be 7, 8 or 9
+    private static final int MAX_LOW_DIGITS = 2;
+
+    // how many numbers are enumerated between checking for cancellation and time budget
+    private static final int STOP_CHECK_INTERVAL = 1 << 12;
+
+    // how many lengths are searched at the same time with multiple threads, each length has
+    // more candidates than the previous one, so a few are enough to keep all threads busy
+    private static final int LENGTHS_IN_FLIGHT = 3;
+
+    // how many persistences of products the histogram keeps in its cache
+    private static final int HISTOGRAM_CACHE_SIZE = 1 << 20;
+
+    // leases of chunks are renewed in the background, so they only expire when a process is gone
+    private static final Duration LEASE_DURATION = Duration.ofMinutes(5);
+
+    private final Representation representation;
+    private final int targetPersistence;
+    private final int maxDigits;
+    private final int base;
+    private final int threads;
+    private final long fromRank;
+    private final long toRank;
+    private final Duration timeBudget;
+    private final int progressInterval;
+    private final SearchListener listener;
+    private final Path journal;
+    private final Path workDirectory;
+    private final long chunkSize;
+    private final int batchSize;
+    private final int ringCapacity;
+    private final ThreadFactory threadFactory;
+    private final Checkpoint checkpoint;
+    private final boolean decimalKernel;
+
+    private volatile boolean cancelled;
+
+    private SearchEngine(Builder builder, int maxDigits) {
+        this.representation = builder.representation;
+        this.targetPersistence = builder.targetPersistence;
+        this.maxDigits = maxDigits;
+        this.base = builder.base;
+        this.threads = builder.threads;
+        this.fromRank = builder.fromRank;
+        this.toRank = builder.toRank;
+        this.timeBudget = builder.timeBudget;
+        this.progressInterval = builder.progressInterval;
+        this.listener = builder.listener;
+        this.journal = builder.journal;
+        this.workDirectory = builder.workDirectory;
+        this.chunkSize = builder.chunkSize;
+        this.batchSize = builder.batchSize;
+        this.ringCapacity = builder.ringCapacity;
+        this.threadFactory = builder.threadFactory;
+        this.checkpoint = builder.checkpoint;
+        this.decimalKernel = builder.decimalKernel;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Run the search in the current thread, multiple threads are only started
+     * if more than one thread is configured.
+     *
+     * @return The numbers which had a higher persistence than all smaller numbers
+     * @throws UncheckedIOException If the journal or the work directory cannot be written
+     */
+    public Result run() {
+        if (journal == null) {
+            return run(listener);
+        }
+
+        Result result;
+        try (ResultJournal resultJournal = ResultJournal.open(journal, ResultJournal.DEFAULT_SYNC_INTERVAL_MS)) {
+            result = run(listener.andThen(resultJournal));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write journal " + journal, e);
+        }
+        return result;
+    }
+
+    private Result run(SearchListener listener) {
+        long deadline = timeBudget == null ? 0 : System.nanoTime() + timeBudget.toNanos();
+
+        if (threads > 1 && representation == Representation.BYTE_ARRAY) {
+            return runPipeline(deadline, listener);
+        }
+        if (threads > 1) {
+            return runParallel(deadline, listener);
+        }
+
+        if (workDirectory != null) {
+            try {
+                return runCoordinated(deadline, listener);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not coordinate via " + workDirectory, e);
+            }
+        }
+
+        // continue where the previous run stopped
+        Checkpoint.State state = checkpoint == null ? null : checkpoint.load();
+        DecimalLimbKernel kernel = decimalKernel ? new DecimalLimbKernel() : null;
+
+        final Enumerator number;
+        // only the byte-array representations in base 10 can store their state
+        Checkpointable checkpointable = null;
+        switch (representation) {
+            case STRING:
+                number = new StringEnumerator();
+                break;
+            case BYTE_ARRAY:
+                if (base == 10) {
+                    checkpointable = new ByteArrayEnumerator(state, kernel);
+                    number = checkpointable;
+                } else {
+                    number = new RadixEnumerator(new RadixPersistence(base), maxDigits);
+                }
+                break;
+            case BYTE_ARRAY_INTEGER:
+                checkpointable = new ByteArrayIntegerEnumerator(state, kernel);
+                number = checkpointable;
+                break;
+            case HISTOGRAM:
+                number = new HistogramEnumerator(fromRank, new PersistenceCache(HISTOGRAM_CACHE_SIZE));
+                break;
+            default:
+                throw new IllegalStateException("Unsupported representation: " + representation);
+        }
+
+        Result result = search(number, deadline, listener, toRank - fromRank, state,
+                checkpoint == null ? null : checkpointable);
+        listener.finished(result.getMaxPersistence(), result.getCounters());
+        return result;
+    }
+
+    /**
+     * Ask a running search to stop, it will finish after a few more numbers.
+     * Searches which are started afterwards stop immediately.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Claim one chunk after the other and search it until there are no more chunks
+     * or one of the processes reached the target or the digit limit.
+     *
+     * Records are only reported when they are confirmed by the chunks which are done, as a chunk
+     * with lower ranks which another process still searches may have a smaller number.
+     */
+    private Result runCoordinated(long deadline, SearchListener listener) throws IOException {
+        WorkCoordinator coordinator = new WorkCoordinator(workDirectory, chunkSize, LEASE_DURATION);
+        SearchCounters counters = new SearchCounters();
+
+        // shared by the chunks, so it is only allocated and filled once
+        PersistenceCache cache = new PersistenceCache(HISTOGRAM_CACHE_SIZE);
+
+        // the highest confirmed persistence, the records of a chunk are not confirmed while it is searched
+        int[] reported = { 1 };
+        SearchListener chunkListener = new SearchListener() {
+            @Override
+            public void progress(String number, int maxPersistence, SearchCounters chunkCounters) {
+                listener.progress(number, reported[0], chunkCounters);
+            }
+        };
+
+        StopReason reason = StopReason.RANK_LIMIT;
+        WorkCoordinator.Lease lease;
+        while ((lease = coordinator.claim(toRank)) != null) {
+            long to = Math.min(lease.getToRank(), toRank);
+            Result result;
+            try {
+                result = search(new HistogramEnumerator(lease.getFromRank(), cache), deadline,
+                        chunkListener.andThen(lease), to - lease.getFromRank(), null, null);
+            } catch (RuntimeException e) {
+                // do not renew the lease of a chunk which will not be completed
+                lease.release();
+                throw e;
+            }
+            counters.addCandidates(result.getCounters().getCandidates());
+            counters.addChecks(result.getCounters().getChecks());
+
+            reason = result.getStopReason();
+            if (reason == StopReason.CANCELLED || reason == StopReason.TIME_BUDGET) {
+                // the chunk was not searched completely
+                lease.release();
+                break;
+            }
+
+            lease.complete(result);
+
+            // this or another process may have completed the chunks before this one by now
+            reportConfirmed(coordinator, reported, listener, counters);
+
+            if (reason != StopReason.RANK_LIMIT) {
+                break;
+            }
+        }
+
+        // another process may have ended the search
+        if (reason == StopReason.RANK_LIMIT && coordinator.getFinishReason() != null) {
+            reason = coordinator.getFinishReason();
+        }
+
+        // report the records of all processes as far as they are known
+        SortedMap<Integer, String> records = reportConfirmed(coordinator, reported, listener, counters);
+        int maxPersistence = records.isEmpty() ? 1 : records.lastKey();
+        if (maxPersistence >= targetPersistence) {
+            reason = StopReason.TARGET_REACHED;
+        }
+        listener.finished(maxPersistence, counters);
+
+        return new Result(records, maxPersistence, counters, reason);
+    }
+
+    /**
+     * Report the records which are confirmed by the chunks which are done and which have
+     * a higher persistence than the ones reported before.
+     *
+     * @param reported The highest reported persistence, updated by this method
+     * @return All confirmed records
+     */
+    private static SortedMap<Integer, String> reportConfirmed(WorkCoordinator coordinator, int[] reported,
+                                                              SearchListener listener, SearchCounters counters)
+            throws IOException {
+        SortedMap<Integer, String> records = coordinator.getRecords();
+        for (Map.Entry<Integer, String> entry : records.tailMap(reported[0] + 1).entrySet()) {
+            reported[0] = entry.getKey();
+            listener.recordFound(entry.getKey(), entry.getValue(), counters);
+        }
+        return records;
+    }
+
+    /**
+     * @param rankLimit How many numbers are enumerated at most
+     * @param state The checkpoint which the enumerator was restored from, null when starting from the beginning
+     * @param checkpointable The same enumerator if its state is stored in the checkpoint, null otherwise
+     */
+    private Result search(Enumerator number, long deadline, SearchListener listener, long rankLimit,
+                          Checkpoint.State state, Checkpointable checkpointable) {
+        SearchCounters counters;
+        SortedMap<Integer, String> records = new TreeMap<>();
+
+        int maxPersistence = 1;
+        long countCandidate = 0;
+        long countCheck = 0;
+        if (state == null) {
+            counters = new SearchCounters();
+        } else {
+            counters = new SearchCounters(System.currentTimeMillis() - state.getElapsed());
+            String[] stored = state.getRecords();
+            for (int persistence = 0; persistence < stored.length; persistence++) {
+                if (stored[persistence] != null) {
+                    records.put(persistence, stored[persistence]);
+                }
+            }
+            maxPersistence = state.getMaxPersistence();
+            countCandidate = state.getCountCandidate();
+            countCheck = state.getCountCheck();
+
+            publish(counters, countCandidate, countCheck);
+            listener.progress(number.toString(), maxPersistence, counters);
+        }
+
+        int untilProgress = progressInterval;
+        int untilStopCheck = 1;
+
+        final StopReason reason;
+        while (true) {
+            if (--untilStopCheck == 0) {
+                untilStopCheck = STOP_CHECK_INTERVAL;
+
+                if (cancelled) {
+                    reason = StopReason.CANCELLED;
+                    break;
+                }
+                if (isOverBudget(deadline)) {
+                    reason = StopReason.TIME_BUDGET;
+                    break;
+                }
+            }
+
+            // the histogram enumerates exactly one rank per number
+            if (countCandidate >= rankLimit) {
+                reason = StopReason.RANK_LIMIT;
+                break;
+            }
+
+            number.increment();
+            if (number.getLength() > maxDigits) {
+                reason = StopReason.DIGIT_LIMIT;
+                break;
+            }
+
+            countCandidate++;
+
+            if (number.candidate()) {
+                int persistence = number.getPersistence();
+                countCheck++;
+
+                if (persistence > maxPersistence) {
+                    maxPersistence = persistence;
+                    String str = number.toString();
+                    records.put(persistence, str);
+                    publish(counters, countCandidate, countCheck);
+                    listener.recordFound(persistence, str, counters);
+
+                    if (persistence >= targetPersistence) {
+                        reason = StopReason.TARGET_REACHED;
+                        break;
+                    }
+                }
+            }
+
+            if (--untilProgress == 0) {
+                untilProgress = progressInterval;
+
+                publish(counters, countCandidate, countCheck);
+                listener.progress(number.toString(), maxPersistence, counters);
+
+                if (checkpointable != null) {
+                    int persistence = maxPersistence;
+                    checkpoint.saveIfDue(() -> checkpointable.getState(persistence, counters, records));
+                }
+            }
+        }
+
+        publish(counters, countCandidate, countCheck);
+        if (checkpointable != null) {
+            checkpoint.save(checkpointable.getState(maxPersistence, counters, records));
+        }
+
+        return new Result(records, maxPersistence, counters, reason);
+    }
+
+    private boolean isOverBudget(long deadline) {
+        // compare the difference as nanoTime() may overflow
+        return timeBudget != null && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * Counting is done in local variables in the loop, only add them to the
+     * shared counters when they are reported.
+     */
+    private static void publish(SearchCounters counters, long countCandidate, long countCheck) {
+        counters.addCandidates(countCandidate - counters.getCandidates());
+        counters.addChecks(countCheck - counters.getChecks());
+    }
+
+    /**
+     * Check numbers via {@link MultiplicativeDigitalRootParallel} with the next few lengths already
+     * submitted while waiting for the current one, records are reported when all numbers of the
+     * same length are checked.
+     */
+    private Result runParallel(long deadline, SearchListener listener) {
+        SearchCounters counters = new SearchCounters();
+        SortedMap<Integer, String> records = new TreeMap<>();
+        PersistenceCache cache = new PersistenceCache(1 << 22);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        // also stops the lengths which are still running when the search ends
+        AtomicBoolean done = new AtomicBoolean();
+        BooleanSupplier stopped = () -> done.get() || cancelled || isOverBudget(deadline);
+        ArrayDeque<ForkJoinTask<Map<Integer, BigInteger>>> pending = new ArrayDeque<>();
+        int nextLength = 1;
+
+        int maxPersistence = 1;
+        StopReason reason = StopReason.DIGIT_LIMIT;
+        try {
+            for (int length = 1; length <= maxDigits; length++) {
+                while (nextLength <= maxDigits && nextLength < length + LENGTHS_IN_FLIGHT) {
+                    pending.add(MultiplicativeDigitalRootParallel.submit(pool, nextLength++, MAX_LOW_DIGITS,
+                            counters, cache, stopped));
+                }
+                Map<Integer, BigInteger> found = pending.remove().join();
+
+                // the results of an interrupted length may miss smaller numbers
+                if (cancelled) {
+                    reason = StopReason.CANCELLED;
+                    break;
+                }
+                if (isOverBudget(deadline)) {
+                    reason = StopReason.TIME_BUDGET;
+                    break;
+                }
+
+                // report in the order of a sequential search
+                List<Map.Entry<Integer, BigInteger>> entries = new ArrayList<>(found.entrySet());
+                entries.sort(Map.Entry.comparingByValue());
+                for (Map.Entry<Integer, BigInteger> entry : entries) {
+                    if (entry.getKey() > maxPersistence) {
+                        maxPersistence = entry.getKey();
+                        records.put(maxPersistence, entry.getValue().toString());
+                        listener.recordFound(maxPersistence, entry.getValue().toString(), counters);
+                    }
+                }
+
+                if (maxPersistence >= targetPersistence) {
+                    reason = StopReason.TARGET_REACHED;
+                    break;
+                }
+
+                // report the largest number of this length as we are done with all of them
+                listener.progress("9".repeat(length), maxPersistence, counters);
+            }
+        } finally {
+            done.set(true);
+            pool.shutdown();
+        }
+
+        // the remaining tasks stop quickly, wait for them so the counters do not change anymore
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        listener.finished(maxPersistence, counters);
+
+        return new Result(records, maxPersistence, counters, reason);
+    }
+
+    /**
+     * Generate candidates in this thread and compute their persistence in the other threads via
+     * {@link MultiplicativeDigitalRootPipeline}, which reports a record once all candidates before it are checked.
+     */
+    private Result runPipeline(long deadline, SearchListener listener) {
+        SearchCounters counters = new SearchCounters();
+        MultiplicativeDigitalRootPipeline pipeline = new MultiplicativeDigitalRootPipeline(threads, batchSize,
+                ringCapacity, threadFactory);
+        Map<Integer, BigInteger> found = pipeline.search(maxDigits, targetPersistence, counters,
+                () -> cancelled || isOverBudget(deadline), listener, progressInterval);
+
+        // all candidates up to the point of stopping are checked, so the records are valid in any case
+        SortedMap<Integer, String> records = new TreeMap<>();
+        for (Map.Entry<Integer, BigInteger> entry : found.entrySet()) {
+            records.put(entry.getKey(), entry.getValue().toString());
+        }
+        int maxPersistence = records.isEmpty() ? 1 : records.lastKey();
+
+        final StopReason reason;
+        if (maxPersistence >= targetPersistence) {
+            reason = StopReason.TARGET_REACHED;
+        } else if (cancelled) {
+            reason = StopReason.CANCELLED;
+        } else if (isOverBudget(deadline)) {
+            reason = StopReason.TIME_BUDGET;
+        } else {
+            reason = StopReason.DIGIT_LIMIT;
+        }
+
+        listener.finished(maxPersistence, counters);
+
+        return new Result(records, maxPersistence, counters, reason);
+    }
+
+    /**
+     * The numbers of one representation in the order in which they are enumerated.
+     */
+    private interface Enumerator {
+        /**
+         * Move to the next number which should be checked, may skip numbers which are not candidates anyway.
+         */
+        void increment();
+
+        int getLength();
+
+        boolean candidate();
+
+        int getPersistence();
+    }
+
+    /**
+     * An enumerator which can store its state in a {@link Checkpoint} and continue from it.
+     */
+    private interface Checkpointable extends Enumerator {
+        /**
+         * @param counters Already include all enumerated and checked numbers
+         * @param records The records found so far, only persistence below {@link Checkpoint#MAX_PERSISTENCE} is stored
+         * @return The current number and counters for storing them in a {@link Checkpoint}
+         */
+        Checkpoint.State getState(int maxPersistence, SearchCounters counters, SortedMap<Integer, String> records);
+    }
+
+    private static Checkpoint.State createState(byte[] number, int digits, int maxPersistence, SearchCounters counters,
+                                                SortedMap<Integer, String> records) {
+        String[] stored = new String[Checkpoint.MAX_PERSISTENCE];
+        for (Map.Entry<Integer, String> entry : records.headMap(Checkpoint.MAX_PERSISTENCE).entrySet()) {
+            stored[entry.getKey()] = entry.getValue();
+        }
+        return new Checkpoint.State(number, digits, maxPersistence, counters.getChecks(), counters.getCandidates(),
+                counters.getElapsedMillis(), stored);
+    }
+
+    private static class StringEnumerator implements Enumerator {
+        // grows when all numbers with as many digits as it holds are enumerated
+        private char[] number = new char[MAX_DIGITS];
+        private int length = 0;
+
+        @Override
+        public void increment() {
+            if (length == number.length) {
+                number = Arrays.copyOf(number, number.length * 2);
+            }
+            length = MultiplicativeDigitalRoot.increment(number, length);
+        }
+
+        @Override
+        public int getLength() {
+            return length;
+        }
+
+        @Override
+        public boolean candidate() {
+            return MultiplicativeDigitalRoot.candidate(number, length);
+        }
+
+        @Override
+        public int getPersistence() {
+            return MathUtils.getPersistence(toString());
+        }
+
+        @Override
+        public String toString() {
+            return new String(number, 0, length);
+        }
+    }
+
+    private static class ByteArrayEnumerator implements Checkpointable {
+        private final byte[] number = new byte[MAX_DIGITS];
+        private int digits = 0;
+
+        // null for computing the persistence via BigInteger
+        private final DecimalLimbKernel kernel;
+
+        /**
+         * @param state Continue after the number of this checkpoint, null for starting with an empty number
+         */
+        private ByteArrayEnumerator(Checkpoint.State state, DecimalLimbKernel kernel) {
+            this.kernel = kernel;
+            Arrays.fill(number, (byte) -1);
+            if (state != null) {
+                System.arraycopy(state.getNumber(), 0, number, 0, Math.min(state.getNumber().length, MAX_DIGITS));
+                digits = state.getDigits();
+            }
+        }
+
+        @Override
+        public void increment() {
+            digits = MultiplicativeDigitalRootByteArray.increment(number, digits);
+        }
+
+        @Override
+        public int getLength() {
+            return digits + 1;
+        }
+
+        @Override
+        public boolean candidate() {
+            return MultiplicativeDigitalRootByteArray.candidate(number);
+        }
+
+        @Override
+        public int getPersistence() {
+            return kernel == null ? MathUtils.getPersistence(number) : kernel.getPersistence(number);
+        }
+
+        @Override
+        public Checkpoint.State getState(int maxPersistence, SearchCounters counters, SortedMap<Integer, String> records) {
+            return createState(number, digits, maxPersistence, counters, records);
+        }
+
+        @Override
+        public String toString() {
+            return MathUtils.toString(number);
+        }
+    }
+
+    private static class RadixEnumerator implements Enumerator {
+        private final RadixPersistence radix;
+        private final byte[] number;
+        private int digits = 0;
+
+        /**
+         * @param maxDigits Room for one more digit and the "-1" after it, so the
+         *                  search can see that the digit limit is reached
+         */
+        private RadixEnumerator(RadixPersistence radix, int maxDigits) {
+            this.radix = radix;
+            number = new byte[maxDigits + 2];
+            Arrays.fill(number, (byte) -1);
+        }
+
+        @Override
+        public void increment() {
+            digits = radix.increment(number, digits);
+        }
+
+        @Override
+        public int getLength() {
+            return digits + 1;
+        }
+
+        @Override
+        public boolean candidate() {
+            return radix.candidate(number);
+        }
+
+        @Override
+        public int getPersistence() {
+            return radix.getPersistence(number);
+        }
+
+        @Override
+        public String toString() {
+            return radix.toString(number);
+        }
+    }
+
+    private static class ByteArrayIntegerEnumerator implements Checkpointable {
+        private final ByteArrayInteger number;
+
+        // null for computing the persistence from the exponents of the product
+        private final DecimalLimbKernel kernel;
+
+        /**
+         * @param state Continue after the number of this checkpoint, null for starting with an empty number
+         */
+        private ByteArrayIntegerEnumerator(Checkpoint.State state, DecimalLimbKernel kernel) {
+            this.number = state == null ? new ByteArrayInteger() : new ByteArrayInteger(state.getNumber());
+            this.kernel = kernel;
+        }
+
+        @Override
+        public void increment() {
+            number.increment();
+        }
+
+        @Override
+        public int getLength() {
+            return number.getDigits();
+        }
+
+        @Override
+        public boolean candidate() {
+            return number.isCandidate();
+        }
+
+        @Override
+        public int getPersistence() {
+            return kernel == null ? number.getPersistence() : kernel.getPersistence(number.getArray());
+        }
+
+        @Override
+        public Checkpoint.State getState(int maxPersistence, SearchCounters counters, SortedMap<Integer, String> records) {
+            return createState(number.getArray(), number.getDigits(), maxPersistence, counters, records);
+        }
+
+        @Override
+        public String toString() {
+            return number.toString();
+        }
+    }
+
+    private static class HistogramEnumerator implements Enumerator {
+        private final DigitHistogram number = new DigitHistogram(MAX_LOW_DIGITS);
+
+        // many numbers share the same product of digits
+        private final PersistenceCache cache;
+
+        private long fromRank;
+
+        private HistogramEnumerator(long fromRank, PersistenceCache cache) {
+            this.fromRank = fromRank;
+            this.cache = cache;
+        }
+
+        @Override
+        public void increment() {
+            if (fromRank > 0) {
+                // jump to the first number instead of enumerating all smaller ones
+                new CandidateRanking(MAX_LOW_DIGITS).unrank(fromRank, number);
+                fromRank = 0;
+            } else {
+                number.next();
+            }
+        }
+
+        @Override
+        public int getLength() {
+            return number.getLength();
+        }
+
+        @Override
+        public boolean candidate() {
+            // only candidates are enumerated
+            return true;
+        }
+
+        @Override
+        public int getPersistence() {
+            return MathUtils.getPersistence(number, cache);
+        }
+
+        @Override
+        public String toString() {
+            return number.toString();
+        }
+    }
+
+    /**
+     * The outcome of a search.
+     */
+    public static class Result {
+        private final SortedMap<Integer, String> records;
+        private final int maxPersistence;
+        private final SearchCounters counters;
+        private final StopReason stopReason;
+
+        private Result(SortedMap<Integer, String> records, int maxPersistence, SearchCounters counters, StopReason stopReason) {
+            this.records = Collections.unmodifiableSortedMap(records);
+            this.maxPersistence = maxPersistence;
+            this.counters = counters;
+            this.stopReason = stopReason;
+        }
+
+        /**
+         * @return The smallest number for each persistence which was higher than the persistence of all smaller numbers
+         */
+        public SortedMap<Integer, String> getRecords() {
+            return records;
+        }
+
+        public int getMaxPersistence() {
+            return maxPersistence;
+        }
+
+        public SearchCounters getCounters() {
+            return counters;
+        }
+
+        public StopReason getStopReason() {
+            return stopReason;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "maxPersistence=" + maxPersistence +
+                    ", stopReason=" + stopReason +
+                    ", records=" + records +
+                    ", " + counters +
+                    '}';
+        }
+    }
+
+    /**
+     * Configures a {@link SearchEngine}, by default the search uses the byte-array
+     * representation in one thread and runs until a persistence of 12 is found.
+     */
+    public static class Builder {
+        private Representation representation = Representation.BYTE_ARRAY;
+        private int targetPersistence = 12;
+        private int maxDigits = -1;
+        private int base = 10;
+        private int threads = 1;
+        private long fromRank = 0;
+        private long toRank = Long.MAX_VALUE;
+        private Duration timeBudget;
+        private int progressInterval = 1 << 24;
+        // by default a ConsoleSearchListener for the configured base
+        private SearchListener listener;
+        private boolean listenerSet;
+        private Path journal;
+        private Path workDirectory;
+        private long chunkSize = 1L << 30;
+        private int batchSize = MultiplicativeDigitalRootPipeline.DEFAULT_BATCH_SIZE;
+        private int ringCapacity = MultiplicativeDigitalRootPipeline.DEFAULT_CAPACITY;
+        private ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "evaluator");
+            thread.setDaemon(true);
+            return thread;
+        };
+        private Checkpoint checkpoint;
+        private boolean decimalKernel;
+
+        private Builder() {
+        }
+
+        public Builder representation(Representation representation) {
+            this.representation = representation;
+            return this;
+        }
+
+        /**
+         * @param targetPersistence Stop when a number with at least this persistence is found
+         */
+        public Builder targetPersistence(int targetPersistence) {
+            this.targetPersistence = targetPersistence;
+            return this;
+        }
+
+        /**
+         * @param maxDigits Stop when all numbers with up to this many digits are checked,
+         *                  the byte-array representation supports at most {@link MathUtils#MAX_DIGITS} - 1 digits,
+         *                  which is also the default for it, the others are unbounded by default.
+         */
+        public Builder maxDigits(int maxDigits) {
+            this.maxDigits = maxDigits;
+            return this;
+        }
+
+        /**
+         * @param base Search for persistence of numbers in this base, other bases than 10 are only
+         *             supported for {@link Representation#BYTE_ARRAY} in one thread, see {@link RadixPersistence}
+         */
+        public Builder base(int base) {
+            this.base = base;
+            return this;
+        }
+
+        /**
+         * @param threads How many threads check numbers, more than one is only
+         *                supported for {@link Representation#HISTOGRAM} and {@link Representation#BYTE_ARRAY},
+         *                for the latter these threads only compute the persistence of candidates
+         *                which are generated by the thread which runs the search
+         */
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * @param fromRank Start at the candidate with this rank, see {@link CandidateRanking},
+         *                 only supported for {@link Representation#HISTOGRAM} in one thread
+         */
+        public Builder fromRank(long fromRank) {
+            this.fromRank = fromRank;
+            return this;
+        }
+
+        /**
+         * @param toRank Stop before the candidate with this rank, see {@link CandidateRanking},
+         *               only supported for {@link Representation#HISTOGRAM} in one thread
+         */
+        public Builder toRank(long toRank) {
+            this.toRank = toRank;
+            return this;
+        }
+
+        /**
+         * @param timeBudget Stop when the search runs longer than this, null for no limit
+         */
+        public Builder timeBudget(Duration timeBudget) {
+            this.timeBudget = timeBudget;
+            return this;
+        }
+
+        /**
+         * @param progressInterval How many numbers are enumerated between progress-events
+         */
+        public Builder progressInterval(int progressInterval) {
+            this.progressInterval = progressInterval;
+            return this;
+        }
+
+        public Builder listener(SearchListener listener) {
+            this.listener = listener;
+            this.listenerSet = true;
+            return this;
+        }
+
+        /**
+         * @param journal Also append records and the end of the search to this file,
+         *                see {@link ResultJournal}, null for not writing a journal
+         */
+        public Builder journal(Path journal) {
+            this.journal = journal;
+            return this;
+        }
+
+        /**
+         * @param workDirectory Search chunks of ranks together with other processes which use the same
+         *                      directory, see {@link WorkCoordinator}, null for searching alone
+         */
+        public Builder workDirectory(Path workDirectory) {
+            this.workDirectory = workDirectory;
+            return this;
+        }
+
+        /**
+         * @param chunkSize How many ranks are searched in one chunk when using a work directory
+         */
+        public Builder chunkSize(long chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * @param batchSize How many candidates are passed to an evaluator at once when
+         *                  {@link Representation#BYTE_ARRAY} uses multiple threads
+         */
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param ringCapacity How many batches of candidates can wait for evaluation before
+         *                     generating blocks when {@link Representation#BYTE_ARRAY} uses multiple threads
+         */
+        public Builder ringCapacity(int ringCapacity) {
+            this.ringCapacity = ringCapacity;
+            return this;
+        }
+
+        /**
+         * @param threadFactory Creates the evaluator threads when {@link Representation#BYTE_ARRAY} uses
+         *                      multiple threads, by default these are daemon platform threads
+         */
+        public Builder threadFactory(ThreadFactory threadFactory) {
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+        /**
+         * @param checkpoint Store the state of the search in it periodically and at the end, and continue from
+         *                   the state in it if it was opened for resuming, the caller closes it after the search,
+         *                   only supported for {@link Representation#BYTE_ARRAY} in base 10 and
+         *                   {@link Representation#BYTE_ARRAY_INTEGER} in one thread, null for no checkpoints
+         */
+        public Builder checkpoint(Checkpoint checkpoint) {
+            this.checkpoint = checkpoint;
+            return this;
+        }
+
+        /**
+         * @param decimalKernel Compute persistence via {@link DecimalLimbKernel} instead of BigInteger,
+         *                      only supported for {@link Representation#BYTE_ARRAY} in base 10 and
+         *                      {@link Representation#BYTE_ARRAY_INTEGER} in one thread
+         */
+        public Builder decimalKernel(boolean decimalKernel) {
+            this.decimalKernel = decimalKernel;
+            return this;
+        }
+
+        public SearchEngine build() {
+            if (representation == null) {
+                throw new IllegalArgumentException("Representation is required");
+            }
+            if (!listenerSet) {
+                listener = new ConsoleSearchListener(ConsoleSearchListener.DEFAULT_INTERVAL_MS, base);
+            }
+            if (listener == null) {
+                throw new IllegalArgumentException("Listener is required, use an empty SearchListener to ignore events");
+            }
+            if (targetPersistence < 2) {
+                throw new IllegalArgumentException("Target persistence needs to be at least 2, but had: " + targetPersistence);
+            }
+
+            // the increment looks at the digit after the highest one
+            int supportedDigits = representation == Representation.BYTE_ARRAY ? MAX_DIGITS - 1 : Integer.MAX_VALUE;
+            int digits = maxDigits == -1 ? supportedDigits : maxDigits;
+            if (digits < 1 || digits > supportedDigits) {
+                throw new IllegalArgumentException("Max digits needs to be between 1 and " + supportedDigits +
+                        " for " + representation + ", but had: " + digits);
+            }
+
+            if (threads < 1) {
+                throw new IllegalArgumentException("Threads need to be at least 1, but had: " + threads);
+            }
+            if (base < RadixPersistence.MIN_BASE || base > RadixPersistence.MAX_BASE) {
+                throw new IllegalArgumentException("Base needs to be between " + RadixPersistence.MIN_BASE + " and " +
+                        RadixPersistence.MAX_BASE + ", but had: " + base);
+            }
+            if (base != 10 && (representation != Representation.BYTE_ARRAY || threads > 1)) {
+                throw new IllegalArgumentException("Other bases than 10 are only supported for " + Representation.BYTE_ARRAY +
+                        " in one thread, but had: " + representation + " with " + threads + " threads");
+            }
+            if (threads > 1 && representation != Representation.HISTOGRAM && representation != Representation.BYTE_ARRAY) {
+                throw new IllegalArgumentException("Multiple threads are only supported for " + Representation.HISTOGRAM +
+                        " and " + Representation.BYTE_ARRAY + ", but had: " + representation);
+            }
+            if (fromRank < 0 || toRank < fromRank) {
+                throw new IllegalArgumentException("Ranks need to be a range starting at 0 or higher, but had: " +
+                        fromRank + " to " + toRank);
+            }
+            if ((fromRank != 0 || toRank != Long.MAX_VALUE) && (representation != Representation.HISTOGRAM || threads > 1)) {
+                throw new IllegalArgumentException("Ranges of ranks are only supported for " + Representation.HISTOGRAM +
+                        " in one thread, but had: " + representation + " with " + threads + " threads");
+            }
+            if (workDirectory != null && (representation != Representation.HISTOGRAM || threads > 1 || fromRank != 0)) {
+                throw new IllegalArgumentException("A work directory is only supported for " + Representation.HISTOGRAM +
+                        " in one thread starting at rank 0, but had: " + representation + " with " + threads +
+                        " threads from rank " + fromRank);
+            }
+            if (batchSize < 1 || ringCapacity < 1 || threadFactory == null) {
+                throw new IllegalArgumentException("Batch size and ring capacity need to be at least 1 and a thread factory " +
+                        "is required, but had: " + batchSize + ", " + ringCapacity + " and " + threadFactory);
+            }
+            if (chunkSize < 1) {
+                throw new IllegalArgumentException("Chunk size needs to be at least 1, but had: " + chunkSize);
+            }
+            if (timeBudget != null && timeBudget.isNegative()) {
+                throw new IllegalArgumentException("Time budget cannot be negative, but had: " + timeBudget);
+            }
+            boolean byteArray = (representation == Representation.BYTE_ARRAY && base == 10) ||
+                    representation == Representation.BYTE_ARRAY_INTEGER;
+            if ((checkpoint != null || decimalKernel) && (!byteArray || threads > 1)) {
+                throw new IllegalArgumentException("Checkpoints and the decimal kernel are only supported for " +
+                        Representation.BYTE_ARRAY + " in base 10 and " + Representation.BYTE_ARRAY_INTEGER +
+                        " in one thread, but had: " + representation + " in base " + base + " with " + threads + " threads");
+            }
+            if (progressInterval < 1) {
+                throw new IllegalArgumentException("Progress interval needs to be at least 1, but had: " + progressInterval);
+            }
+
+            return new SearchEngine(this, digits);
+        }
+    }
+}
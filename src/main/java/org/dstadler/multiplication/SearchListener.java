@@ -0,0 +1,67 @@
+package org.dstadler.multiplication;
+
+/**
+ * Receives events of a running search, e.g. for printing progress or for
+ * feeding results into monitoring.
+ *
+ * Events are sent from the thread which runs the search, they should return
+ * quickly as the search does not continue until they are done. All methods
+ * do nothing by default.
+ */
+public interface SearchListener {
+    /**
+     * A number with a higher persistence than all numbers before was found.
+     *
+     * @param persistence The persistence of the number
+     * @param number The number
+     * @param counters The counters of the search
+     */
+    default void recordFound(int persistence, String number, SearchCounters counters) {
+    }
+
+    /**
+     * Sent periodically while the search is running.
+     *
+     * @param number The number which is currently checked
+     * @param maxPersistence The highest persistence found so far
+     * @param counters The counters of the search
+     */
+    default void progress(String number, int maxPersistence, SearchCounters counters) {
+    }
+
+    /**
+     * The search stopped.
+     *
+     * @param maxPersistence The highest persistence found
+     * @param counters The counters of the search
+     */
+    default void finished(int maxPersistence, SearchCounters counters) {
+    }
+
+    /**
+     * @param other The listener which receives events after this one
+     * @return A listener which sends all events to this and the other listener
+     */
+    default SearchListener andThen(SearchListener other) {
+        SearchListener first = this;
+        return new SearchListener() {
+            @Override
+            public void recordFound(int persistence, String number, SearchCounters counters) {
+                first.recordFound(persistence, number, counters);
+                other.recordFound(persistence, number, counters);
+            }
+
+            @Override
+            public void progress(String number, int maxPersistence, SearchCounters counters) {
+                first.progress(number, maxPersistence, counters);
+                other.progress(number, maxPersistence, counters);
+            }
+
+            @Override
+            public void finished(int maxPersistence, SearchCounters counters) {
+                first.finished(maxPersistence, counters);
+                other.finished(maxPersistence, counters);
+            }
+        };
+    }
+}
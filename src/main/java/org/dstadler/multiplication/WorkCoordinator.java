@@ -0,0 +1,412 @@
+package org.dstadler.multiplication;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distributes the candidates of a search over multiple processes, possibly on multiple
+ * hosts, which only share a directory, no other service is needed.
+ *
+ * The candidates are split into chunks of a fixed number of ranks, see {@link CandidateRanking}.
+ * A process claims a chunk by creating a lease-file for it, creating the file fails if it
+ * already exists, so only one process gets each chunk. While the chunk is searched, a
+ * background thread renews the lease by updating the modification time of the file
+ * independent of how fast the search progresses. When the process does not renew it within
+ * the lease duration, e.g. because it was killed, another process claims the chunk again
+ * by creating the lease-file of the next generation.
+ *
+ * When a chunk is searched completely, its records and counters are stored in a done-file
+ * which is written to a temporary file first and then hard-linked into place, which fails
+ * if the file exists already. So the directory needs to be on a filesystem with hard links.
+ *
+ * E.g. with chunks of 1000 ranks: chunk-0.done, chunk-1.done, chunk-2.0.lease, chunk-3.0.lease, chunk-3.1.lease
+ */
+public class WorkCoordinator {
+    private static final String SETTINGS_FILE = "coordinator.properties";
+
+    private static final String STOP_REASON = "stopReason";
+    private static final String CANDIDATES = "candidates";
+    private static final String CHECKS = "checks";
+    private static final String RECORD = "record.";
+
+    private final Path directory;
+    private final long chunkSize;
+    private final Duration leaseDuration;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName();
+
+    // all chunks below are done, so they do not need to be looked at again
+    private long firstOpen = 0;
+
+    // set when a chunk ended the search by reaching the target or the digit limit
+    private SearchEngine.StopReason finishReason;
+
+    // done-files are never changed, so the records of the chunks below are only merged once
+    private final SortedMap<Integer, String> records = new TreeMap<>();
+    private long firstUnmerged = 0;
+    private boolean merged;
+
+    // renews the leases, the thread ends when there is no lease for a while
+    private final ScheduledThreadPoolExecutor renewals = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "lease-renewal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param directory The directory which is shared by all processes, it is created if it does not exist yet
+     * @param chunkSize How many ranks are searched in one chunk, all processes need to use the same
+     * @param leaseDuration After how long without renewal a lease expires and the chunk is claimed again
+     * @throws IOException If the directory cannot be accessed
+     * @throws IllegalArgumentException If the directory is already used with a different chunk size
+     */
+    public WorkCoordinator(Path directory, long chunkSize, Duration leaseDuration) throws IOException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size needs to be at least 1, but had: " + chunkSize);
+        }
+        if (leaseDuration.isNegative() || leaseDuration.isZero()) {
+            throw new IllegalArgumentException("Lease duration needs to be positive, but had: " + leaseDuration);
+        }
+
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        this.leaseDuration = leaseDuration;
+
+        renewals.setKeepAliveTime(1, TimeUnit.SECONDS);
+        renewals.allowCoreThreadTimeOut(true);
+        renewals.setRemoveOnCancelPolicy(true);
+
+        Files.createDirectories(directory);
+        checkSettings();
+    }
+
+    private void checkSettings() throws IOException {
+        Properties settings = new Properties();
+        settings.setProperty("chunkSize", Long.toString(chunkSize));
+
+        Path file = directory.resolve(SETTINGS_FILE);
+        try {
+            writeAtomically(file, settings);
+            return;
+        } catch (FileAlreadyExistsException e) {
+            // another process set up the directory already
+        }
+
+        long existing = Long.parseLong(read(file).getProperty("chunkSize"));
+        if (existing != chunkSize) {
+            throw new IllegalArgumentException("Directory " + directory + " uses chunks of " + existing +
+                    " ranks, but had: " + chunkSize);
+        }
+    }
+
+    /**
+     * Claim the first chunk which is neither done nor leased by a running process.
+     *
+     * @param toRank The chunks end before this rank
+     * @return The lease for the chunk or null if there is no chunk left or
+     *      if a chunk was done with reaching the target or the digit limit
+     * @throws IOException If the lease-file cannot be written
+     */
+    public Lease claim(long toRank) throws IOException {
+        long chunks = toRank / chunkSize + (toRank % chunkSize == 0 ? 0 : 1);
+        for (long chunk = firstOpen; chunk < chunks && finishReason == null; chunk++) {
+            Path done = getDoneFile(chunk);
+            if (Files.exists(done)) {
+                if (chunk == firstOpen) {
+                    firstOpen++;
+                }
+
+                Properties properties = read(done);
+                if (isFinished(properties)) {
+                    finishReason = SearchEngine.StopReason.valueOf(properties.getProperty(STOP_REASON));
+                }
+                continue;
+            }
+
+            Lease lease = tryLease(chunk);
+            if (lease != null) {
+                return lease;
+            }
+        }
+
+        return null;
+    }
+
+    private Lease tryLease(long chunk) throws IOException {
+        // find the lease of the highest generation
+        int generation = 0;
+        while (Files.exists(getLeaseFile(chunk, generation))) {
+            generation++;
+        }
+
+        if (generation > 0) {
+            FileTime renewed;
+            try {
+                renewed = Files.getLastModifiedTime(getLeaseFile(chunk, generation - 1));
+            } catch (NoSuchFileException e) {
+                // the chunk was completed in the meantime
+                return null;
+            }
+
+            if (System.currentTimeMillis() - renewed.toMillis() < leaseDuration.toMillis()) {
+                return null;
+            }
+        }
+
+        Path file = getLeaseFile(chunk, generation);
+        try {
+            Files.write(file, owner.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (FileAlreadyExistsException e) {
+            // another process was faster
+            return null;
+        }
+
+        // the chunk may have been completed while we were looking at the leases
+        if (Files.exists(getDoneFile(chunk))) {
+            Files.deleteIfExists(file);
+            return null;
+        }
+
+        return new Lease(chunk, file);
+    }
+
+    /**
+     * Merge the records of all chunks which are done, starting at the first chunk and stopping
+     * at the first chunk which is not done yet, as a later chunk may only report a record
+     * because a number with the same persistence in an earlier chunk is not known yet.
+     *
+     * Chunks which were merged by a previous call are not read again.
+     *
+     * @return The smallest number for each persistence which was higher than the persistence of all smaller numbers
+     * @throws IOException If a done-file cannot be read
+     */
+    public SortedMap<Integer, String> getRecords() throws IOException {
+        for (; !merged; firstUnmerged++) {
+            Path done = getDoneFile(firstUnmerged);
+            if (!Files.exists(done)) {
+                break;
+            }
+
+            // the records of a chunk are in ascending order of number and persistence
+            Properties properties = read(done);
+            SortedMap<Integer, String> chunkRecords = new TreeMap<>();
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith(RECORD)) {
+                    chunkRecords.put(Integer.parseInt(name.substring(RECORD.length())), properties.getProperty(name));
+                }
+            }
+            for (SortedMap.Entry<Integer, String> entry : chunkRecords.entrySet()) {
+                if (records.isEmpty() ? entry.getKey() > 1 : entry.getKey() > records.lastKey()) {
+                    records.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            // no later chunk belongs to the search
+            merged = isFinished(properties);
+        }
+
+        return new TreeMap<>(records);
+    }
+
+    /**
+     * @return Why a chunk ended the search, i.e. {@link SearchEngine.StopReason#TARGET_REACHED} or
+     *      {@link SearchEngine.StopReason#DIGIT_LIMIT}, null if no such chunk was seen by {@link #claim(long)}
+     */
+    public SearchEngine.StopReason getFinishReason() {
+        return finishReason;
+    }
+
+    private static boolean isFinished(Properties done) {
+        SearchEngine.StopReason reason = SearchEngine.StopReason.valueOf(done.getProperty(STOP_REASON));
+        return reason == SearchEngine.StopReason.TARGET_REACHED || reason == SearchEngine.StopReason.DIGIT_LIMIT;
+    }
+
+    private Path getLeaseFile(long chunk, int generation) {
+        return directory.resolve("chunk-" + chunk + "." + generation + ".lease");
+    }
+
+    private Path getDoneFile(long chunk) {
+        return directory.resolve("chunk-" + chunk + ".done");
+    }
+
+    private static Properties read(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    /**
+     * Write to a temporary file and link it into place, so other processes never see a partial
+     * file and only one of multiple processes which write the same file concurrently succeeds.
+     *
+     * @throws FileAlreadyExistsException If the file already exists
+     */
+    private void writeAtomically(Path file, Properties properties) throws IOException {
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                properties.store(writer, "Written by " + owner);
+            }
+
+            // unlike a move, creating a link never replaces an existing file
+            Files.createLink(file, temp);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * A claimed chunk, the lease is renewed in the background until the chunk is
+     * completed or released. It is also a {@link SearchListener} which reports a failed
+     * renewal on the next event of the search.
+     */
+    public class Lease implements SearchListener {
+        private final long chunk;
+        private final Path file;
+        private final ScheduledFuture<?> renewal;
+        private long renewed = System.currentTimeMillis();
+        private volatile IOException failure;
+
+        private Lease(long chunk, Path file) {
+            this.chunk = chunk;
+            this.file = file;
+
+            long period = Math.max(1, leaseDuration.toMillis() / 4);
+            this.renewal = renewals.scheduleAtFixedRate(this::renewInBackground, period, period, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void renewInBackground() {
+            // a renewal which was already running must not extend a released lease
+            if (renewal == null || renewal.isCancelled()) {
+                return;
+            }
+
+            try {
+                renew();
+            } catch (IOException e) {
+                failure = e;
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public long getChunk() {
+            return chunk;
+        }
+
+        /**
+         * @return The rank of the first candidate of this chunk
+         */
+        public long getFromRank() {
+            return chunk * chunkSize;
+        }
+
+        /**
+         * @return The rank after the last candidate of this chunk
+         */
+        public long getToRank() {
+            long from = getFromRank();
+            return chunkSize > Long.MAX_VALUE - from ? Long.MAX_VALUE : from + chunkSize;
+        }
+
+        /**
+         * Extend the lease, the file is only touched if a quarter of the lease duration has passed.
+         *
+         * @throws IOException If the lease-file cannot be updated
+         */
+        public synchronized void renew() throws IOException {
+            long now = System.currentTimeMillis();
+            if (now - renewed >= leaseDuration.toMillis() / 4) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+                renewed = now;
+            }
+        }
+
+        @Override
+        public void recordFound(int persistence, String number, SearchCounters counters) {
+            renewQuietly();
+        }
+
+        @Override
+        public void progress(String number, int maxPersistence, SearchCounters counters) {
+            renewQuietly();
+        }
+
+        private void renewQuietly() {
+            try {
+                if (failure != null) {
+                    throw failure;
+                }
+                renew();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not renew lease " + file, e);
+            }
+        }
+
+        /**
+         * Stop renewing the lease in the background, so it expires like the lease of a process
+         * which was killed, this is done by {@link #complete(SearchEngine.Result)} and {@link #release()}.
+         */
+        void stopRenewal() {
+            renewal.cancel(false);
+        }
+
+        /**
+         * Store the outcome of searching this chunk and remove the lease-files.
+         *
+         * @param result The result of the search of this chunk
+         * @throws IOException If the done-file cannot be written
+         */
+        public void complete(SearchEngine.Result result) throws IOException {
+            // wait for a running renewal, the lease-files are removed below
+            synchronized (this) {
+                stopRenewal();
+            }
+
+            Properties properties = new Properties();
+            properties.setProperty(STOP_REASON, result.getStopReason().name());
+            properties.setProperty(CANDIDATES, Long.toString(result.getCounters().getCandidates()));
+            properties.setProperty(CHECKS, Long.toString(result.getCounters().getChecks()));
+            for (SortedMap.Entry<Integer, String> entry : result.getRecords().entrySet()) {
+                properties.setProperty(RECORD + entry.getKey(), entry.getValue());
+            }
+
+            try {
+                writeAtomically(getDoneFile(chunk), properties);
+            } catch (FileAlreadyExistsException e) {
+                // a process which claimed the expired lease was faster, the result is the same
+            }
+
+            for (int generation = 0; Files.deleteIfExists(getLeaseFile(chunk, generation)); generation++) {
+                // remove all generations of leases of this chunk
+            }
+        }
+
+        /**
+         * Give up the chunk without completing it, so another process can claim it immediately.
+         *
+         * @throws IOException If the lease-file cannot be updated
+         */
+        public synchronized void release() throws IOException {
+            stopRenewal();
+            Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.dstadler.multiplication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.junit.jupiter.api.Test;
+
+public class BatchRingBufferTest {
+    @Test
+    public void testCapacity() {
+        assertEquals(1, new BatchRingBuffer(1, 1).getCapacity());
+        assertEquals(2, new BatchRingBuffer(2, 1).getCapacity());
+        assertEquals(4, new BatchRingBuffer(3, 1).getCapacity());
+        assertEquals(64, new BatchRingBuffer(64, 1).getCapacity());
+
+        assertThrows(IllegalArgumentException.class, () -> new BatchRingBuffer(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BatchRingBuffer((1 << 20) + 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BatchRingBuffer(1, 0));
+    }
+
+    @Test
+    public void testSingleThread() {
+        BatchRingBuffer ring = new BatchRingBuffer(2, 3);
+        BatchRingBuffer.Batch batch = ring.claim(0);
+        batch.size = 2;
+        ring.publish(0);
+        ring.claim(1).size = 1;
+        ring.publish(1);
+        ring.close(2);
+
+        assertEquals(0, ring.take());
+        assertSame(batch, ring.get(0));
+        assertEquals(2, ring.get(0).size);
+        ring.release(0);
+
+        // the slot of the released batch is used again
+        assertSame(batch, ring.claim(2));
+
+        assertEquals(1, ring.take());
+        assertEquals(-1, ring.take());
+    }
+
+    @Test
+    public void testConsumers() throws InterruptedException {
+        BatchRingBuffer ring = new BatchRingBuffer(4, 1);
+        int batches = 100_000;
+        AtomicLongArray taken = new AtomicLongArray(batches);
+        AtomicLong sum = new AtomicLong();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                long sequence;
+                while ((sequence = ring.take()) != -1) {
+                    taken.incrementAndGet((int) sequence);
+                    sum.addAndGet(ring.get(sequence).numbers[0]);
+                    ring.release(sequence);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long expected = 0;
+        for (int sequence = 0; sequence < batches; sequence++) {
+            BatchRingBuffer.Batch batch = ring.claim(sequence);
+            batch.numbers[0] = (byte) (sequence % 100);
+            batch.size = 1;
+            expected += sequence % 100;
+            ring.publish(sequence);
+        }
+        ring.close(batches);
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // every batch was taken exactly once and the content was not overwritten before
+        for (int i = 0; i < batches; i++) {
+            assertEquals(1, taken.get(i), "Failed for " + i);
+        }
+        assertEquals(expected, sum.get());
+    }
+
+    @Test
+    public void testAbort() {
+        BatchRingBuffer ring = new BatchRingBuffer(1, 1);
+        ring.claim(0);
+        ring.publish(0);
+        ring.abort();
+
+        // the producer would wait for the consumer to release the batch
+        assertThrows(IllegalStateException.class, () -> ring.claim(1));
+    }
+}
@@ -3,9 +3,11 @@ package org.dstadler.multiplication;
 import static org.dstadler.multiplication.MathUtils.MAX_DIGITS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigInteger;
 
+import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
@@ -71,11 +73,9 @@ public class ByteArrayIntegerTest {
 
         // when we start from 1 we should never encounter "0" or "1" again
         // as both as skipped when incrementing.
-		ByteArrayInteger number = new ByteArrayInteger();
-
         BigInteger current = new BigInteger("1");
         for(int i = 0;i < 1000;i++) {
-            MathUtils.toByteArray(number.getArray(), current);
+			ByteArrayInteger number = new ByteArrayInteger(current);
 
 			number.increment();
 
@@ -159,6 +159,66 @@ public class ByteArrayIntegerTest {
 				number.toString());
 	}
 
+	@Test
+	public void testMoreThanMaxDigits() {
+		String str = "2" + StringUtils.repeat('7', 150) + "8";
+		ByteArrayInteger number = new ByteArrayInteger(new BigInteger(str));
+		assertEquals(152, number.getLength());
+		assertEquals(str, number.toString());
+		assertTrue(number.isCandidate());
+		assertEquals(MathUtils.getPersistence(str), number.getPersistence());
+
+		number.increment();
+		assertEquals("2" + StringUtils.repeat('7', 150) + "9", number.toString());
+
+		// all 9s roll over to one more digit
+		number = new ByteArrayInteger(new BigInteger(StringUtils.repeat('9', 160)));
+		number.increment();
+		assertEquals("222" + StringUtils.repeat('7', 158), number.toString());
+		assertEquals(161, number.getLength());
+
+		byte[] arr = number.getArray();
+		assertEquals(162, arr.length);
+		assertEquals(7, arr[0]);
+		assertEquals(2, arr[158]);
+		assertEquals(2, arr[160]);
+		assertEquals(-1, arr[161]);
+	}
+
+	@Test
+	public void testGetArray() {
+		ByteArrayInteger number = new ByteArrayInteger(BigInteger.valueOf(239));
+		byte[] arr = number.getArray();
+		assertEquals(MAX_DIGITS, arr.length);
+		assertEquals(9, arr[0]);
+		assertEquals(3, arr[1]);
+		assertEquals(2, arr[2]);
+		assertEquals(-1, arr[3]);
+		assertEquals(-1, arr[MAX_DIGITS - 1]);
+
+		// a copy is returned
+		arr[0] = 8;
+		assertEquals("239", number.toString());
+		assertEquals(3, number.getDigit(1));
+	}
+
+	@Test
+	public void testCandidateAndPersistence() {
+		ByteArrayInteger number = new ByteArrayInteger();
+		for (int i = 0; i < 200_000; i++) {
+			number.increment();
+
+			byte[] arr = number.getArray();
+			assertEquals(MultiplicativeDigitalRootClass.candidate(arr), number.isCandidate(), "Failed for " + number);
+			assertEquals(MathUtils.getPersistence(arr), number.getPersistence(), "Failed for " + number);
+		}
+
+		for (String str : new String[] { "0", "1", "5", "10", "25", "52", "39", "105", "277777788888899" }) {
+			assertEquals(MathUtils.getPersistence(str), new ByteArrayInteger(new BigInteger(str)).getPersistence(),
+					"Failed for " + str);
+		}
+	}
+
     @Disabled("Local micro-benchmark")
     @Test
     public void testMicroBenchmarkIncrement() {
@@ -0,0 +1,106 @@
+package org.dstadler.multiplication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class CandidateRankingTest {
+    @Test
+    public void testRank() {
+        CandidateRanking ranking = new CandidateRanking(Integer.MAX_VALUE);
+        assertEquals(0, ranking.rank("2"));
+        assertEquals(1, ranking.rank("3"));
+        assertEquals(7, ranking.rank("9"));
+        assertEquals(8, ranking.rank("24"));
+        assertEquals(9, ranking.rank("26"));
+
+        assertEquals("2", ranking.unrank(0));
+        assertEquals("9", ranking.unrank(7));
+        assertEquals("24", ranking.unrank(8));
+        assertEquals("26", ranking.unrank(9));
+    }
+
+    @Test
+    public void testCompareWithHistogram() {
+        checkCompareWithHistogram(Integer.MAX_VALUE, 9);
+        checkCompareWithHistogram(2, 20);
+        checkCompareWithHistogram(1, 20);
+        checkCompareWithHistogram(0, 40);
+    }
+
+    private void checkCompareWithHistogram(int maxLowDigits, int maxLength) {
+        CandidateRanking ranking = new CandidateRanking(maxLowDigits);
+        DigitHistogram histogram = new DigitHistogram(maxLowDigits);
+        DigitHistogram seeded = new DigitHistogram(maxLowDigits);
+
+        long rank = 0;
+        histogram.next();
+        for (int length = 1; length <= maxLength; length++) {
+            assertEquals(rank, ranking.firstRank(length));
+
+            long count = 0;
+            while (histogram.getLength() == length) {
+                String str = histogram.toString();
+                assertEquals(rank, ranking.rank(str), "Failed for " + str + " and " + maxLowDigits);
+                assertEquals(rank, ranking.rank(histogram), "Failed for " + str + " and " + maxLowDigits);
+
+                ranking.unrank(rank, seeded);
+                assertEquals(str, seeded.toString(), "Failed for " + rank + " and " + maxLowDigits);
+                assertEquals(length, seeded.getLength());
+
+                rank++;
+                count++;
+                histogram.next();
+            }
+
+            assertEquals(count, ranking.count(length), "Failed for " + length + " and " + maxLowDigits);
+
+            // the histogram is already at the first number of the next length
+            histogram = continueAt(histogram, ranking, rank, maxLowDigits);
+        }
+    }
+
+    private static DigitHistogram continueAt(DigitHistogram histogram, CandidateRanking ranking, long rank, int maxLowDigits) {
+        // seeding at a rank and calling next() gives the same as enumerating
+        DigitHistogram next = new DigitHistogram(maxLowDigits);
+        ranking.unrank(rank - 1, next);
+        next.next();
+        assertEquals(histogram.toString(), next.toString());
+        return next;
+    }
+
+    @Test
+    public void testLongNumbers() {
+        CandidateRanking ranking = new CandidateRanking(2);
+
+        String number = "277777788888899" + "9".repeat(1000);
+        long rank = ranking.rank(number);
+        assertEquals(number, ranking.unrank(rank));
+        assertEquals(ranking.firstRank(number.length() + 1) - 1, ranking.rank("9".repeat(number.length())));
+
+        ranking = new CandidateRanking(Integer.MAX_VALUE);
+        number = "3" + "4".repeat(100) + "5".repeat(100) + "6".repeat(100) + "7".repeat(100) + "8".repeat(100);
+        rank = ranking.rank(number);
+        assertEquals(number, ranking.unrank(rank));
+
+        CandidateRanking unlimited = ranking;
+        assertThrows(ArithmeticException.class, () -> unlimited.firstRank(5000));
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new CandidateRanking(-1));
+
+        CandidateRanking ranking = new CandidateRanking(2);
+        assertThrows(IllegalArgumentException.class, () -> ranking.rank(""));
+        assertThrows(IllegalArgumentException.class, () -> ranking.rank("22"));
+        assertThrows(IllegalArgumentException.class, () -> ranking.rank("25"));
+        assertThrows(IllegalArgumentException.class, () -> ranking.rank("33"));
+        assertThrows(IllegalArgumentException.class, () -> ranking.rank("444"));
+        assertThrows(IllegalArgumentException.class, () -> ranking.rank("98"));
+        assertThrows(IllegalArgumentException.class, () -> ranking.rank("10"));
+        assertThrows(IllegalArgumentException.class, () -> ranking.unrank(-1));
+        assertThrows(IllegalArgumentException.class, () -> ranking.count(-1));
+    }
+}
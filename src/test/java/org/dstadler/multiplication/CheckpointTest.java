@@ -0,0 +1,220 @@
+package org.dstadler.multiplication;
+
+import static org.dstadler.multiplication.MathUtils.MAX_DIGITS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CheckpointTest {
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("CheckpointTest", ".checkpoint");
+        Files.delete(file);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        try (Checkpoint checkpoint = Checkpoint.open(file, true)) {
+            assertNull(checkpoint.load());
+        }
+    }
+
+    @Test
+    public void testNoResume() throws IOException {
+        try (Checkpoint checkpoint = Checkpoint.open(file, false)) {
+            checkpoint.save(createState("2677889", 8));
+            assertNull(checkpoint.load());
+        }
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        try (Checkpoint checkpoint = Checkpoint.open(file, false)) {
+            checkpoint.save(createState("2677889", 8));
+            checkpoint.save(createState("26888999", 9));
+        }
+
+        try (Checkpoint checkpoint = Checkpoint.open(file, true)) {
+            Checkpoint.State state = checkpoint.load();
+            assertNotNull(state);
+
+            assertEquals("26888999", MathUtils.toString(state.getNumber()));
+            assertEquals(7, state.getDigits());
+            assertEquals(9, state.getMaxPersistence());
+            assertEquals(90, state.getCountCheck());
+            assertEquals(900, state.getCountCandidate());
+            assertEquals(9000, state.getElapsed());
+            assertEquals("26888999", state.getRecords()[9]);
+            assertNull(state.getRecords()[10]);
+
+            // saving again continues with the sequence from the file
+            checkpoint.save(createState("3778888999", 10));
+            assertEquals("3778888999", MathUtils.toString(checkpoint.load().getNumber()));
+        }
+    }
+
+    @Test
+    public void testLongNumbers() throws IOException {
+        // more digits than MathUtils.MAX_DIGITS, e.g. from a ByteArrayInteger
+        String[] numbers = { "2".repeat(150), "3".repeat(3000), "4".repeat(20_000), "5".repeat(300) };
+        try (Checkpoint checkpoint = Checkpoint.open(file, true)) {
+            for (String numberStr : numbers) {
+                ByteArrayInteger number = new ByteArrayInteger(new BigInteger(numberStr));
+                String[] records = new String[Checkpoint.MAX_PERSISTENCE];
+                records[11] = numberStr;
+                checkpoint.save(new Checkpoint.State(number.getArray(), number.getDigits(), 11, 1, 2, 3, records));
+
+                Checkpoint.State state = checkpoint.load();
+                assertEquals(numberStr, new ByteArrayInteger(state.getNumber()).toString());
+                assertEquals(numberStr, state.getRecords()[11]);
+            }
+        }
+
+        // the enlarged slots are used after opening the file again
+        try (Checkpoint checkpoint = Checkpoint.open(file, true)) {
+            assertEquals("5".repeat(300), new ByteArrayInteger(checkpoint.load().getNumber()).toString());
+
+            checkpoint.save(createState("2677889", 8));
+            assertEquals("2677889", MathUtils.toString(checkpoint.load().getNumber()));
+        }
+    }
+
+    @Test
+    public void testCorruptedSlot() throws IOException {
+        try (Checkpoint checkpoint = Checkpoint.open(file, false)) {
+            checkpoint.save(createState("2677889", 8));
+            checkpoint.save(createState("26888999", 9));
+        }
+
+        // simulate a crash while writing the latest checkpoint which is stored in the first slot
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(12 + 16 + 30);
+            raf.write(new byte[] { 1, 2, 3, 4 });
+        }
+
+        try (Checkpoint checkpoint = Checkpoint.open(file, true)) {
+            Checkpoint.State state = checkpoint.load();
+            assertNotNull(state);
+
+            assertEquals("2677889", MathUtils.toString(state.getNumber()));
+            assertEquals(8, state.getMaxPersistence());
+        }
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException {
+        Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 });
+
+        try (Checkpoint checkpoint = Checkpoint.open(file, true)) {
+            assertNull(checkpoint.load());
+        }
+    }
+
+    @Test
+    public void testFromArgs() throws IOException {
+        assertNull(Checkpoint.fromArgs(new String[0]));
+        assertNull(Checkpoint.fromArgs(new String[] { "--other" }));
+
+        try (Checkpoint checkpoint = Checkpoint.fromArgs(new String[] { "--checkpoint", file.toString() })) {
+            assertNotNull(checkpoint);
+            checkpoint.save(createState("68889", 7));
+            assertNull(checkpoint.load());
+        }
+
+        try (Checkpoint checkpoint = Checkpoint.fromArgs(new String[] { "--checkpoint", file.toString(), "--resume" })) {
+            assertNotNull(checkpoint);
+            assertEquals("68889", MathUtils.toString(checkpoint.load().getNumber()));
+        }
+    }
+
+    @Test
+    public void testSearchEngineResume() throws IOException {
+        SearchListener silent = new SearchListener() {
+        };
+
+        for (SearchEngine.Representation representation : new SearchEngine.Representation[] {
+                SearchEngine.Representation.BYTE_ARRAY, SearchEngine.Representation.BYTE_ARRAY_INTEGER }) {
+            Files.deleteIfExists(file);
+
+            Checkpoint.State state;
+            try (Checkpoint checkpoint = Checkpoint.open(file, false)) {
+                SearchEngine.Result result = SearchEngine.builder()
+                        .representation(representation)
+                        .targetPersistence(8)
+                        .checkpoint(checkpoint)
+                        .listener(silent)
+                        .build()
+                        .run();
+                assertEquals(SearchEngine.StopReason.TARGET_REACHED, result.getStopReason());
+            }
+
+            // the state at the end of the search is stored
+            try (Checkpoint checkpoint = Checkpoint.open(file, true)) {
+                state = checkpoint.load();
+                assertNotNull(state, "Failed for " + representation);
+                assertEquals("2677889", new ByteArrayInteger(state.getNumber()).toString());
+                assertEquals(8, state.getMaxPersistence());
+                assertEquals("68889", state.getRecords()[7]);
+                assertEquals("2677889", state.getRecords()[8]);
+            }
+
+            try (Checkpoint checkpoint = Checkpoint.open(file, true)) {
+                List<String> progress = new ArrayList<>();
+                SearchEngine.Result result = SearchEngine.builder()
+                        .representation(representation)
+                        .targetPersistence(9)
+                        .checkpoint(checkpoint)
+                        .listener(new SearchListener() {
+                            @Override
+                            public void progress(String number, int maxPersistence, SearchCounters counters) {
+                                progress.add(number);
+                            }
+                        })
+                        .build()
+                        .run();
+
+                // continues after the stored number and keeps the records and counters
+                assertEquals("2677889", progress.get(0), "Failed for " + representation);
+                assertEquals(SearchEngine.StopReason.TARGET_REACHED, result.getStopReason());
+                assertEquals("39", result.getRecords().get(3));
+                assertEquals("2677889", result.getRecords().get(8));
+                assertEquals("26888999", result.getRecords().get(9));
+                assertTrue(result.getCounters().getCandidates() > state.getCountCandidate());
+                assertTrue(result.getCounters().getChecks() > state.getCountCheck());
+            }
+        }
+    }
+
+    private static Checkpoint.State createState(String numberStr, int persistence) {
+        byte[] number = new byte[MAX_DIGITS];
+        Arrays.fill(number, (byte) -1);
+        MathUtils.toByteArray(number, new BigInteger(numberStr));
+
+        String[] records = new String[Checkpoint.MAX_PERSISTENCE];
+        records[persistence] = numberStr;
+
+        return new Checkpoint.State(number, numberStr.length() - 1, persistence,
+                persistence * 10L, persistence * 100L, persistence * 1000L, records);
+    }
+}
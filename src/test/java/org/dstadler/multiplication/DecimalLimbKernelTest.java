@@ -0,0 +1,133 @@
+package org.dstadler.multiplication;
+
+import static org.dstadler.multiplication.MathUtils.MAX_DIGITS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.jupiter.api.Test;
+
+public class DecimalLimbKernelTest {
+    private final DecimalLimbKernel kernel = new DecimalLimbKernel();
+
+    @Test
+    public void testPersistence() {
+        // https://oeis.org/A003001
+        checkPersistence(1, "0");
+        checkPersistence(1, "1");
+        checkPersistence(1, "2");
+        checkPersistence(1, "10");
+        checkPersistence(2, "25");
+        checkPersistence(3, "39");
+        checkPersistence(4, "77");
+        checkPersistence(5, "679");
+        checkPersistence(6, "6788");
+        checkPersistence(7, "68889");
+        checkPersistence(8, "2677889");
+        checkPersistence(9, "26888999");
+        checkPersistence(10, "3778888999");
+        checkPersistence(11, "277777788888899");
+        checkPersistence(11, "84772818479372227374");
+        checkPersistence(1, "847728184793722273740");
+        checkPersistence(2, "12345");
+    }
+
+    private void checkPersistence(int expected, String input) {
+        byte[] number = new byte[MAX_DIGITS];
+        MathUtils.toByteArray(number, new BigInteger(input));
+        assertEquals(expected, kernel.getPersistence(number), "Failed for " + input);
+    }
+
+    @Test
+    public void testCompareRandom() {
+        byte[] number = new byte[MAX_DIGITS];
+        for (int i = 0; i < 10_000; i++) {
+            // avoid zeros to get longer chains
+            String str = RandomStringUtils.insecure().next(RandomUtils.insecure().randomInt(1, MAX_DIGITS - 1), "123456789");
+
+            MathUtils.toByteArray(number, new BigInteger(str));
+            assertEquals(MathUtils.getPersistence(number), kernel.getPersistence(number), "Failed for " + str);
+        }
+    }
+
+    @Test
+    public void testCompareHistogram() {
+        DigitHistogram histogram = new DigitHistogram();
+        byte[] number = new byte[MAX_DIGITS];
+        for (int i = 0; i < 20_000; i++) {
+            histogram.next();
+            histogram.toByteArray(number);
+            assertEquals(MathUtils.getPersistence(number), kernel.getPersistence(number), "Failed for " + histogram);
+        }
+    }
+
+    @Test
+    public void testLongNumber() {
+        // longer than MAX_DIGITS and without terminating "-1"
+        byte[] number = new byte[1000];
+        Arrays.fill(number, (byte) 7);
+        assertEquals(MathUtils.getPersistence(new String(new char[1000]).replace('\0', '7')),
+                kernel.getPersistence(number));
+
+        // buffers are re-used afterwards
+        checkPersistence(11, "277777788888899");
+    }
+
+    @Test
+    public void testForCurrentThread() throws InterruptedException {
+        DecimalLimbKernel kernel = DecimalLimbKernel.forCurrentThread();
+        assertSame(kernel, DecimalLimbKernel.forCurrentThread());
+
+        DecimalLimbKernel[] other = new DecimalLimbKernel[1];
+        Thread thread = new Thread(() -> other[0] = DecimalLimbKernel.forCurrentThread());
+        thread.start();
+        thread.join();
+
+        assertTrue(other[0] != null && other[0] != kernel);
+    }
+
+    @Test
+    public void testNoAllocation() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "Needs allocation counters of the JVM");
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled(),
+                "Needs allocation counters of the JVM");
+
+        byte[][] numbers = new byte[100][];
+        DigitHistogram histogram = new DigitHistogram(2);
+        for (int i = 0; i < numbers.length; i++) {
+            for (int j = 0; j < 50; j++) {
+                histogram.next();
+            }
+            numbers[i] = new byte[MAX_DIGITS];
+            histogram.toByteArray(numbers[i]);
+        }
+
+        // warm up so that buffers are grown to the required size
+        int sum = 0;
+        for (byte[] number : numbers) {
+            sum += MathUtils.getPersistenceNoAlloc(number);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1000; i++) {
+            for (byte[] number : numbers) {
+                sum += MathUtils.getPersistenceNoAlloc(number);
+            }
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        // allow for a few bytes from reading the counter itself, but not one allocation per call
+        assertTrue(allocated < 10_000, "Allocated " + allocated + " bytes for 100.000 calls");
+        assertTrue(sum > 0);
+    }
+}
@@ -0,0 +1,180 @@
+package org.dstadler.multiplication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class DigitHistogramTest {
+    @Test
+    public void testNext() {
+        DigitHistogram histogram = new DigitHistogram();
+        assertEquals("", histogram.toString());
+        assertEquals(0, histogram.getLength());
+
+        checkNext(histogram, "2", "3", "4", "5", "6", "7", "8", "9",
+                "24", "26", "27", "28", "29", "34", "35", "36", "37", "38", "39", "44", "45");
+    }
+
+    @Test
+    public void testNextLowDigits() {
+        DigitHistogram histogram = new DigitHistogram(2);
+        for (int i = 0; i < 8; i++) {
+            histogram.next();
+        }
+        assertEquals("9", histogram.toString());
+
+        checkNext(histogram, "24", "26", "27");
+
+        histogram = new DigitHistogram(0);
+        checkNext(histogram, "7", "8", "9", "77", "78", "79", "88", "89", "99", "777");
+    }
+
+    @Test
+    public void testInvalidLowDigits() {
+        assertThrows(IllegalArgumentException.class, () -> new DigitHistogram(-1));
+    }
+
+    private void checkNext(DigitHistogram histogram, String... expected) {
+        for (String str : expected) {
+            histogram.next();
+            assertEquals(str, histogram.toString());
+            assertEquals(str.length(), histogram.getLength());
+        }
+    }
+
+    @Test
+    public void testStart() {
+        DigitHistogram histogram = new DigitHistogram();
+        histogram.start(4, "26");
+        assertEquals("2666", histogram.toString());
+        assertTrue(histogram.startsWith("26"));
+        assertTrue(histogram.startsWith("266"));
+        assertTrue(histogram.startsWith(""));
+        assertFalse(histogram.startsWith("27"));
+        assertFalse(histogram.startsWith("26666"));
+
+        histogram.next();
+        assertEquals("2667", histogram.toString());
+
+        // "22" is never a candidate
+        histogram.start(4, "22");
+        assertEquals("2444", histogram.toString());
+        assertFalse(histogram.startsWith("22"));
+
+        histogram.start(3, "");
+        assertEquals("244", histogram.toString());
+
+        assertThrows(IllegalArgumentException.class, () -> histogram.start(1, "26"));
+        assertThrows(IllegalArgumentException.class, () -> histogram.start(3, "62"));
+        assertThrows(IllegalArgumentException.class, () -> histogram.start(3, "10"));
+    }
+
+    @Test
+    public void testCompareWithCandidate() {
+        checkCompareWithCandidate(Integer.MAX_VALUE);
+        checkCompareWithCandidate(2);
+        checkCompareWithCandidate(1);
+    }
+
+    private void checkCompareWithCandidate(int maxLowDigits) {
+        // collect all numbers up to 6 digits which are seen as candidates
+        List<String> expected = new ArrayList<>();
+        for (int i = 2; i < 1_000_000; i++) {
+            String str = Integer.toString(i);
+            if (MultiplicativeDigitalRoot.candidate(str) && countLowDigits(str) <= maxLowDigits) {
+                expected.add(str);
+            }
+        }
+
+        DigitHistogram histogram = new DigitHistogram(maxLowDigits);
+        for (String str : expected) {
+            histogram.next();
+            assertEquals(str, histogram.toString(), "Failed for " + maxLowDigits);
+        }
+
+        histogram.next();
+        assertEquals(7, histogram.getLength());
+    }
+
+    private static int countLowDigits(String str) {
+        int low = 0;
+        for (char c : str.toCharArray()) {
+            if (c < '7') {
+                low++;
+            }
+        }
+        return low;
+    }
+
+    @Test
+    public void testProduct() {
+        DigitHistogram histogram = new DigitHistogram();
+        for (int i = 0; i < 20_000; i++) {
+            histogram.next();
+
+            String str = histogram.toString();
+            assertEquals(MathUtils.getMultiplicativeDigitalRoot(str), histogram.getProduct(),
+                    "Failed for " + str);
+            assertEquals(MathUtils.getPersistence(str), MathUtils.getPersistence(histogram),
+                    "Failed for " + str);
+        }
+    }
+
+    @Test
+    public void testToByteArray() {
+        DigitHistogram histogram = new DigitHistogram();
+        byte[] number = new byte[MathUtils.MAX_DIGITS];
+        for (int i = 0; i < 1000; i++) {
+            histogram.next();
+
+            histogram.toByteArray(number);
+            assertEquals(histogram.toString(), MathUtils.toString(number));
+        }
+
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> histogram.toByteArray(new byte[2]));
+    }
+
+    @Test
+    public void testKnownSmallest() {
+        // https://oeis.org/A003001
+        Map<Integer, String> smallest = new HashMap<>();
+        DigitHistogram histogram = new DigitHistogram(2);
+        while (histogram.getLength() <= 15) {
+            histogram.next();
+
+            int persistence = MathUtils.getPersistence(histogram);
+            smallest.putIfAbsent(persistence, histogram.toString());
+        }
+
+        assertEquals("39", smallest.get(3));
+        assertEquals("77", smallest.get(4));
+        assertEquals("679", smallest.get(5));
+        assertEquals("6788", smallest.get(6));
+        assertEquals("68889", smallest.get(7));
+        assertEquals("2677889", smallest.get(8));
+        assertEquals("26888999", smallest.get(9));
+        assertEquals("3778888999", smallest.get(10));
+        assertEquals("277777788888899", smallest.get(11));
+    }
+
+    @Test
+    public void testLongNumbers() {
+        // not limited by MAX_DIGITS
+        DigitHistogram histogram = new DigitHistogram(0);
+        while (histogram.getLength() <= MathUtils.MAX_DIGITS * 2) {
+            histogram.next();
+        }
+
+        assertEquals(BigInteger.valueOf(7).pow(MathUtils.MAX_DIGITS * 2 + 1), histogram.getProduct());
+        assertEquals(MathUtils.getPersistence(histogram.toString()), MathUtils.getPersistence(histogram));
+    }
+}
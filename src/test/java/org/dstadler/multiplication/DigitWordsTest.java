@@ -0,0 +1,132 @@
+package org.dstadler.multiplication;
+
+import static org.dstadler.multiplication.MathUtils.MAX_DIGITS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class DigitWordsTest {
+    @Test
+    public void testZeroBytes() {
+        assertEquals(0, DigitWords.zeroBytes(-1L));
+        assertEquals(0x8080808080808080L, DigitWords.zeroBytes(0));
+        assertEquals(0x0000000000008000L, DigitWords.zeroBytes(0x0101010101010001L));
+        assertEquals(0x8000000000000080L, DigitWords.zeroBytes(0x0080808080808000L));
+
+        assertEquals(0x8000000000000000L, DigitWords.equalBytes(0xFF02020202020202L, -1));
+        assertEquals(0x0080800000000000L, DigitWords.equalBytes(0xFF03030202020202L, 3));
+    }
+
+    @Test
+    public void testCandidate() {
+        checkCandidate(true, "");
+        checkCandidate(true, "2");
+        checkCandidate(true, "39");
+        checkCandidate(true, "277777788888899");
+        checkCandidate(true, "3778888999");
+        checkCandidate(true, "246789");
+        checkCandidate(false, "22");
+        checkCandidate(false, "33");
+        checkCandidate(false, "256");
+        checkCandidate(false, "98");
+        checkCandidate(false, "2222222222222222");
+        checkCandidate(false, "777777777777772");
+        checkCandidate(false, "777777787777777");
+        checkCandidate(false, "777777777777777777777777787777777");
+        checkCandidate(false, "277777777777777777777777777777772");
+        checkCandidate(false, "23");
+
+        // ordering at the boundary between two words
+        checkCandidate(true, "7777777788888888");
+        checkCandidate(false, "8777777788888888");
+        checkCandidate(false, "7777777878888888");
+    }
+
+    @Test
+    public void testCandidateRandom() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            // mostly ordered digits, otherwise almost all are rejected because of ordering
+            char[] chars = new char[1 + random.nextInt(MAX_DIGITS - 2)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) ('2' + random.nextInt(8));
+            }
+            Arrays.sort(chars);
+            if (random.nextInt(4) == 0) {
+                chars[random.nextInt(chars.length)] = (char) ('2' + random.nextInt(8));
+            }
+
+            checkCandidate(null, new String(chars));
+        }
+    }
+
+    @Test
+    public void testCandidateExhausted() {
+        byte[] number = new byte[MAX_DIGITS];
+        Arrays.fill(number, (byte) 9);
+        assertThrows(IllegalStateException.class, () -> DigitWords.candidate(number));
+
+        // not ordered is detected before
+        number[97] = 8;
+        number[98] = 9;
+        assertFalse(DigitWords.candidate(number));
+
+        // more digits than MAX_DIGITS
+        byte[] longer = new byte[MAX_DIGITS + 10];
+        Arrays.fill(longer, (byte) 9);
+        longer[MAX_DIGITS + 5] = -1;
+        assertThrows(IllegalStateException.class, () -> DigitWords.candidate(longer));
+    }
+
+    private void checkCandidate(Boolean expected, String str) {
+        byte[] number = toByteArray(str, MAX_DIGITS);
+
+        boolean reference = MultiplicativeDigitalRoot.candidate(str);
+        if (expected != null) {
+            assertEquals(expected, reference, "Failed for " + str);
+        }
+        assertEquals(reference, DigitWords.candidate(number), "Failed for " + str);
+    }
+
+    @Test
+    public void testContainsZero() {
+        Random random = new Random(42);
+        for (int length = 1; length < 40; length++) {
+            for (int i = 0; i < 1000; i++) {
+                char[] chars = new char[random.nextInt(length)];
+                for (int j = 0; j < chars.length; j++) {
+                    chars[j] = (char) ('0' + (random.nextInt(20) == 0 ? 0 : 1 + random.nextInt(9)));
+                }
+                String str = new String(chars);
+
+                byte[] number = toByteArray(str, length);
+                // digits after the "-1" are ignored
+                if (number.length > str.length() + 1) {
+                    number[str.length() + 1] = 0;
+                }
+
+                assertEquals(str.contains("0"), DigitWords.containsZero(number), "Failed for " + str);
+            }
+        }
+
+        assertFalse(DigitWords.containsZero(new byte[0]));
+        assertTrue(DigitWords.containsZero(new byte[] { 0 }));
+        assertFalse(DigitWords.containsZero(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 9 }));
+        assertTrue(DigitWords.containsZero(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 0 }));
+    }
+
+    private static byte[] toByteArray(String str, int length) {
+        byte[] number = new byte[Math.max(length, str.length())];
+        Arrays.fill(number, (byte) -1);
+        for (int i = 0; i < str.length(); i++) {
+            number[i] = (byte) (str.charAt(str.length() - 1 - i) - '0');
+        }
+        return number;
+    }
+}
@@ -2,11 +2,15 @@ package org.dstadler.multiplication;
 
 import static org.dstadler.multiplication.MathUtils.MAX_DIGITS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigInteger;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
@@ -43,6 +47,32 @@ public class MathUtilsTest {
         assertEquals(BigInteger.ONE, MathUtils.getMultiplicativeDigitalRoot(new byte[0]));
     }
 
+    @Test
+    public void getMultiplicativeDigitalRootChunks() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            char[] chars = new char[1 + random.nextInt(MAX_DIGITS - 2)];
+            for (int j = 0; j < chars.length; j++) {
+                // only few zeros, otherwise the product is almost always zero
+                chars[j] = (char) ('0' + (j > 0 && random.nextInt(200) == 0 ? 0 : 1 + random.nextInt(9)));
+            }
+            checkRoot(MathUtils.getMultiplicativeDigitalRoot(new String(chars)).toString(), new String(chars));
+        }
+
+        // the largest product, and arrays which are exactly filled with digits
+        checkRoot(BigInteger.valueOf(9).pow(MAX_DIGITS - 1).toString(), "9".repeat(MAX_DIGITS - 1));
+        for (int length = 0; length <= MAX_DIGITS; length++) {
+            byte[] number = new byte[length];
+            Arrays.fill(number, (byte) 9);
+            assertEquals(BigInteger.valueOf(9).pow(length), MathUtils.getMultiplicativeDigitalRoot(number));
+
+            if (length > 0) {
+                number[length - 1] = 0;
+                assertEquals(BigInteger.ZERO, MathUtils.getMultiplicativeDigitalRoot(number));
+            }
+        }
+    }
+
     @Test
     public void testPersistence() {
         checkPersistence(1, "1");
@@ -82,6 +112,88 @@ public class MathUtilsTest {
         byte[] number = new byte[MAX_DIGITS];
         MathUtils.toByteArray(number, new BigInteger(input));
         assertEquals(expected, MathUtils.getPersistence(number));
+
+        // and for longs if the number fits
+        if (input.length() < 19) {
+            assertEquals(expected, MathUtils.getPersistence(Long.parseLong(input)));
+        }
+    }
+
+    @Test
+    public void testPersistenceAroundLongOverflow() {
+        // products of 18 to 25 digits are around 2^63, so the chain switches between long and BigInteger
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            char[] chars = new char[18 + random.nextInt(8)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) ('2' + random.nextInt(8));
+            }
+            checkPersistence(MathUtils.getPersistence(new String(chars)), new String(chars));
+        }
+
+        checkPersistence(MathUtils.getPersistence(BigInteger.valueOf(9).pow(20).toString()) + 1, "9".repeat(20));
+    }
+
+    @Test
+    public void testPersistenceZeroAboveLowestDigits() {
+        // the products have no zero in the lowest 35 digits, but further up, so the next product is 0
+        checkPersistence(2, "4888888888888888888888888888888888888888888888888999999999");
+        checkPersistence(2, "268888888888888888888888888888888888888888888888889999999999");
+        assertEquals(2, MathUtils.getPersistence(146, 18, 0, 0));
+    }
+
+    @Test
+    public void testPersistenceExponents() {
+        for (int twos = 0; twos < 80; twos += 3) {
+            for (int threes = 0; threes < 50; threes += 2) {
+                for (int sevens = 0; sevens < 40; sevens += 3) {
+                    // the smallest number with this product of digits does not matter, use only 2, 3 and 7
+                    String str = "2".repeat(twos) + "3".repeat(threes) + "7".repeat(sevens);
+                    int expected = str.isEmpty() ? 1 : MathUtils.getPersistence(str);
+                    assertEquals(expected, MathUtils.getPersistence(twos, threes, 0, sevens),
+                            "Failed for " + twos + ", " + threes + ", " + sevens);
+                }
+            }
+        }
+
+        assertEquals(MathUtils.getPersistence("5".repeat(30) + "3".repeat(10)), MathUtils.getPersistence(0, 10, 30, 0));
+        assertEquals(2, MathUtils.getPersistence(1, 0, 1, 0));
+    }
+
+    @Test
+    public void testPersistenceLong() {
+        assertEquals(1, MathUtils.getPersistence(0L));
+        assertEquals(0, MathUtils.getMultiplicativeDigitalRoot(0L));
+        assertEquals(27, MathUtils.getMultiplicativeDigitalRoot(39L));
+        assertEquals(0, MathUtils.getMultiplicativeDigitalRoot(10_000L));
+        assertEquals(BigInteger.valueOf(9).pow(18).longValueExact(), MathUtils.getMultiplicativeDigitalRoot(999_999_999_999_999_999L));
+        assertEquals(MathUtils.getMultiplicativeDigitalRoot(Long.toString(Long.MAX_VALUE)).longValueExact(),
+                MathUtils.getMultiplicativeDigitalRoot(Long.MAX_VALUE));
+        assertEquals(MathUtils.getPersistence(Long.toString(Long.MAX_VALUE)), MathUtils.getPersistence(Long.MAX_VALUE));
+
+        assertThrows(IllegalArgumentException.class, () -> MathUtils.getPersistence(-1L));
+    }
+
+    @Test
+    public void testPersistenceLongBatch() {
+        Random random = new Random(42);
+        long[] numbers = new long[10_000];
+        for (int i = 0; i < numbers.length; i++) {
+            // mostly without zeros, otherwise the persistence is almost always 1
+            long number = 0;
+            for (int digits = 1 + random.nextInt(18); digits > 0; digits--) {
+                number = number * 10 + (random.nextInt(50) == 0 ? 0 : 1 + random.nextInt(9));
+            }
+            numbers[i] = number;
+        }
+
+        int[] persistences = MathUtils.getPersistence(numbers);
+        for (int i = 0; i < numbers.length; i++) {
+            assertEquals(MathUtils.getPersistence(Long.toString(numbers[i])), persistences[i], "Failed for " + numbers[i]);
+        }
+
+        assertEquals(0, MathUtils.getPersistence(new long[0]).length);
+        assertThrows(IllegalArgumentException.class, () -> MathUtils.getPersistence(new long[2], new int[1]));
     }
 
     @Test
@@ -110,10 +222,49 @@ public class MathUtilsTest {
         checkFactorization("3778888999", "3778888999");
         checkFactorization("277777788888899", "13", "59", "1699", "213161503");
 
-        // takes a few seconds: checkFactorization("1277777788888899", "3", "425925929629633");
-        // takes a few seconds: checkFactorization("2777777888888991", "3", "113", "3011", "2721366679");
-        // takes a few seconds: checkFactorization("27777778888889911", "7", "7", "23", "619", "8447", "4713901");
-        // takes a few seconds: checkFactorization("84772818479372227374", "2", "3", "31", "10891", "137191", "305035439");
+        checkFactorization("1277777788888899", "3", "425925929629633");
+        checkFactorization("2777777888888991", "3", "113", "3011", "2721366679");
+        checkFactorization("27777778888889911", "7", "7", "23", "619", "8447", "4713901");
+        checkFactorization("84772818479372227374", "2", "3", "31", "10891", "137191", "305035439");
+
+        // large prime factors
+        checkFactorization("2305843009213693951", "2305843009213693951");
+        checkFactorization("4951760154835678088235319297", "2147483647", "2305843009213693951");
+        checkFactorization(BigInteger.valueOf(1_000_000_007L).multiply(BigInteger.valueOf(998_244_353L)).toString(),
+                "998244353", "1000000007");
+        checkFactorization(BigInteger.valueOf(65_537L).pow(3).toString(), "65537", "65537", "65537");
+    }
+
+    @Test
+    public void testPrimeFactorizationSmooth() {
+        // products of digits only have the factors 2, 3, 5 and 7
+        BigInteger product = MathUtils.getProduct(300, 150, 40, 200);
+        List<BigInteger> factors = MathUtils.primeFactors(product.toString());
+        assertEquals(690, factors.size());
+        assertEquals(300, factors.stream().filter(BigInteger.TWO::equals).count());
+        assertEquals(150, factors.stream().filter(BigInteger.valueOf(3)::equals).count());
+        assertEquals(40, factors.stream().filter(BigInteger.valueOf(5)::equals).count());
+        assertEquals(200, factors.stream().filter(BigInteger.valueOf(7)::equals).count());
+        assertEquals(BigInteger.valueOf(7), factors.get(689));
+    }
+
+    @Test
+    public void testPrimeFactorizationRandom() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            BigInteger number = new BigInteger(1 + random.nextInt(64), random);
+            List<BigInteger> factors = MathUtils.primeFactors(number.toString());
+
+            BigInteger product = BigInteger.ONE;
+            BigInteger previous = BigInteger.ONE;
+            for (BigInteger factor : factors) {
+                assertTrue(factor.isProbablePrime(50), "Failed for " + number + ": " + factors);
+                assertTrue(factor.compareTo(previous) >= 0, "Not sorted for " + number + ": " + factors);
+                product = product.multiply(factor);
+                previous = factor;
+            }
+            assertEquals(number.compareTo(BigInteger.ONE) <= 0 ? BigInteger.ONE : number, product);
+        }
     }
 
     private void checkFactorization(String input, String... expectedFactors) {
@@ -141,6 +292,38 @@ public class MathUtilsTest {
         assertEquals(16, MathUtils.log10(new BigInteger("27777778888889911")));
     }
 
+    @Test
+    public void testLog10PowersOfTen() {
+        // also above the cached powers of ten
+        for (int exponent = 1; exponent < 5000; exponent += exponent < 2100 ? 1 : 97) {
+            BigInteger power = BigInteger.TEN.pow(exponent);
+            assertEquals(exponent - 1, MathUtils.log10(power.subtract(BigInteger.ONE)), "Failed for " + exponent);
+            assertEquals(exponent, MathUtils.log10(power), "Failed for " + exponent);
+            assertEquals(exponent, MathUtils.log10(power.add(BigInteger.ONE)), "Failed for " + exponent);
+            assertEquals(exponent, MathUtils.log10(power.negate()), "Failed for " + exponent);
+        }
+    }
+
+    @Test
+    public void testLog10Random() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            BigInteger number = new BigInteger(1 + random.nextInt(3000), random);
+            assertEquals(number.toString().length() - 1, MathUtils.log10(number), "Failed for " + number);
+        }
+    }
+
+    @Test
+    public void testPowersOfTen() {
+        assertEquals(BigInteger.ONE, PowersOfTen.pow(0));
+        assertEquals(BigInteger.TEN, PowersOfTen.pow(1));
+        assertEquals(BigInteger.TEN.pow(1234), PowersOfTen.pow(1234));
+        assertEquals(BigInteger.TEN.pow(5000), PowersOfTen.pow(5000));
+
+        // cached
+        assertSame(PowersOfTen.pow(17), PowersOfTen.pow(17));
+    }
+
     @Test
     public void testToByteArrayAndToString() {
         checkToByteArrayAndToString(new byte[] {0, -1}, "0");
@@ -153,10 +336,100 @@ public class MathUtilsTest {
         checkToByteArrayAndToString(new byte[] {3, 4, 7, 9, 2, 1, -1}, "129743");
     }
 
+    @Test
+    public void testToByteArrayPowersOfTen() {
+        for (int exponent = 0; exponent <= 300; exponent++) {
+            BigInteger power = BigInteger.TEN.pow(exponent);
+            checkToByteArray(power.subtract(BigInteger.ONE));
+            checkToByteArray(power);
+            checkToByteArray(power.add(BigInteger.ONE));
+        }
+    }
+
+    @Test
+    public void testToByteArrayRandom() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            checkToByteArray(new BigInteger(random.nextInt(2000) + 1, random));
+        }
+    }
+
+    @Test
+    public void testToByteArrayWithoutZero() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            // mostly numbers without zeros, which need all digits to be converted
+            char[] chars = new char[1 + random.nextInt(300)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) ('1' + random.nextInt(9));
+            }
+            if (chars.length > 1 && random.nextInt(3) == 0) {
+                chars[1 + random.nextInt(chars.length - 1)] = '0';
+            }
+            String str = new String(chars);
+            BigInteger bigNumber = new BigInteger(str);
+
+            byte[] number = new byte[chars.length + 1];
+            assertEquals(!str.contains("0"), MathUtils.toByteArrayWithoutZero(number, bigNumber), "Failed for " + str);
+            if (!str.contains("0")) {
+                assertEquals(str, MathUtils.toString(number));
+                assertEquals(-1, number[chars.length]);
+            }
+        }
+
+        assertFalse(MathUtils.toByteArrayWithoutZero(new byte[2], BigInteger.ZERO));
+        assertFalse(MathUtils.toByteArrayWithoutZero(new byte[100], BigInteger.TEN.pow(50)));
+        assertFalse(MathUtils.toByteArrayWithoutZero(new byte[100], BigInteger.TEN.pow(50).add(BigInteger.valueOf(1))));
+        assertFalse(MathUtils.toByteArrayWithoutZero(new byte[100], new BigInteger("1" + "0" + "1".repeat(18))));
+
+        byte[] number = new byte[100];
+        assertTrue(MathUtils.toByteArrayWithoutZero(number, new BigInteger("1".repeat(99))));
+        assertEquals("1".repeat(99), MathUtils.toString(number));
+    }
+
+    @Test
+    public void testToByteArrayParallel() {
+        // large enough to be split across threads
+        checkToByteArray(new BigInteger(1 << 19, new Random(42)));
+    }
+
+    private void checkToByteArray(BigInteger bigNumber) {
+        String expected = bigNumber.toString();
+        byte[] number = new byte[expected.length() + 1];
+        MathUtils.toByteArray(number, bigNumber);
+        assertEquals(expected, MathUtils.toString(number));
+        assertEquals(-1, number[expected.length()]);
+    }
+
     @Test
     public void testToByteArrayOverflow() {
         assertThrows(ArrayIndexOutOfBoundsException.class, () ->
             MathUtils.toByteArray(new byte[2], new BigInteger("123")));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () ->
+            MathUtils.toByteArray(new byte[2], new BigInteger("12")));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () ->
+            MathUtils.toByteArray(new byte[20], new BigInteger("1234567890123456789012345")));
+    }
+
+    @Test
+    public void testContainsZeroLong() {
+        assertFalse(MathUtils.containsZero(123456789123456789L, 18));
+        assertTrue(MathUtils.containsZero(123456789103456789L, 18));
+        assertTrue(MathUtils.containsZero(103456789123456789L, 18));
+
+        // only the given number of digits are looked at, positions above the number are zeros
+        assertFalse(MathUtils.containsZero(1203, 1));
+        assertTrue(MathUtils.containsZero(1203, 2));
+        assertFalse(MathUtils.containsZero(1234, 4));
+        assertTrue(MathUtils.containsZero(1234, 5));
+        assertTrue(MathUtils.containsZero(12345, 8));
+        assertFalse(MathUtils.containsZero(0, 0));
+        assertTrue(MathUtils.containsZero(0, 1));
+
+        for (long i = 0; i < 100_000; i++) {
+            String str = Long.toString(i);
+            assertEquals(str.contains("0"), MathUtils.containsZero(i, str.length()), "Failed for " + i);
+        }
     }
 
     private void checkToByteArrayAndToString(byte[] expected, String strNumber) {
@@ -0,0 +1,60 @@
+package org.dstadler.multiplication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+public class MultiplicativeDigitalRootParallelTest {
+    @Test
+    public void testKnownSmallest() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            SearchCounters counters = new SearchCounters();
+            Map<Integer, BigInteger> records = MultiplicativeDigitalRootParallel.search(pool, 1, 15, 2, counters, null);
+
+            // https://oeis.org/A003001
+            assertEquals("39", records.get(3).toString());
+            assertEquals("77", records.get(4).toString());
+            assertEquals("679", records.get(5).toString());
+            assertEquals("6788", records.get(6).toString());
+            assertEquals("68889", records.get(7).toString());
+            assertEquals("2677889", records.get(8).toString());
+            assertEquals("26888999", records.get(9).toString());
+            assertEquals("3778888999", records.get(10).toString());
+            assertEquals("277777788888899", records.get(11).toString());
+
+            // the ranges of ranks of all tasks cover each candidate exactly once
+            assertEquals(new CandidateRanking(2).firstRank(16), counters.getCandidates());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testCompareWithSequential() {
+        Map<Integer, BigInteger> expected = new TreeMap<>();
+        long expectedCount = 0;
+        DigitHistogram histogram = new DigitHistogram();
+        histogram.next();
+        while (histogram.getLength() <= 8) {
+            expected.putIfAbsent(MathUtils.getPersistence(histogram), new BigInteger(histogram.toString()));
+            expectedCount++;
+            histogram.next();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            SearchCounters counters = new SearchCounters();
+            assertEquals(expected, MultiplicativeDigitalRootParallel.search(pool, 1, 8, Integer.MAX_VALUE, counters, new PersistenceCache(1000)));
+            assertEquals(expectedCount, counters.getChecks());
+            assertEquals(expectedCount, counters.getCandidates());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.dstadler.multiplication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+public class MultiplicativeDigitalRootPipelineTest {
+    @Test
+    public void testCompareWithSequential() {
+        // the numbers with a higher persistence than all smaller candidates of the byte-array increment
+        Map<Integer, BigInteger> expected = new TreeMap<>();
+        int maxPersistence = 1;
+        byte[] number = new byte[MathUtils.MAX_DIGITS];
+        Arrays.fill(number, (byte) -1);
+        long candidates = 0;
+        long checks = 0;
+        int digits = 0;
+        while (true) {
+            digits = MultiplicativeDigitalRootByteArray.increment(number, digits);
+            if (digits + 1 > 12) {
+                break;
+            }
+            candidates++;
+            if (MultiplicativeDigitalRootByteArray.candidate(number)) {
+                checks++;
+                int persistence = MathUtils.getPersistence(number);
+                if (persistence > maxPersistence) {
+                    maxPersistence = persistence;
+                    expected.put(persistence, new BigInteger(MathUtils.toString(number)));
+                }
+            }
+        }
+
+        for (int batchSize : new int[] { 1, 7, 1024 }) {
+            SearchCounters counters = new SearchCounters();
+            TreeMap<Integer, BigInteger> reported = new TreeMap<>();
+            Map<Integer, BigInteger> found = new MultiplicativeDigitalRootPipeline(3, batchSize, 2,
+                    Executors.defaultThreadFactory()).search(12, 20, counters, () -> false, new SearchListener() {
+                        @Override
+                        public void recordFound(int persistence, String number, SearchCounters recordCounters) {
+                            // records are reported in ascending order
+                            assertTrue(reported.isEmpty() || reported.lastKey() < persistence);
+                            reported.put(persistence, new BigInteger(number));
+                        }
+                    }, Integer.MAX_VALUE);
+
+            assertEquals(expected, found, "Failed for " + batchSize);
+            assertEquals(expected, reported, "Failed for " + batchSize);
+            assertEquals(candidates, counters.getCandidates());
+            assertEquals(checks, counters.getChecks());
+        }
+    }
+
+    @Test
+    public void testStopped() {
+        SearchCounters counters = new SearchCounters();
+        Map<Integer, BigInteger> found = new MultiplicativeDigitalRootPipeline(2, 16, 4,
+                Executors.defaultThreadFactory()).search(MathUtils.MAX_DIGITS - 1, 20, counters, () -> true);
+
+        // stopped after the first few thousand numbers, which were still checked
+        assertEquals(BigInteger.valueOf(39), found.get(3));
+        assertTrue(counters.getChecks() > 0);
+    }
+
+    @Test
+    public void testRecordsWhileRunning() {
+        // only stops because the record was reported while the search is still running
+        boolean[] found = new boolean[1];
+        Map<Integer, BigInteger> records = new MultiplicativeDigitalRootPipeline(2, 16, 4,
+                Executors.defaultThreadFactory()).search(MathUtils.MAX_DIGITS - 1, 20, new SearchCounters(),
+                () -> found[0], new SearchListener() {
+                    @Override
+                    public void recordFound(int persistence, String number, SearchCounters counters) {
+                        if (persistence == 9) {
+                            assertEquals("26888999", number);
+                            found[0] = true;
+                        }
+                    }
+                }, Integer.MAX_VALUE);
+
+        assertTrue(found[0]);
+        assertEquals(BigInteger.valueOf(26888999), records.get(9));
+    }
+
+    @Test
+    public void testProgress() {
+        SearchCounters counters = new SearchCounters();
+        List<String> numbers = new ArrayList<>();
+        int[] maxPersistence = new int[1];
+        new MultiplicativeDigitalRootPipeline(2, 16, 4, Executors.defaultThreadFactory()).search(8, 20, counters,
+                () -> false, new SearchListener() {
+                    @Override
+                    public void progress(String number, int persistence, SearchCounters progressCounters) {
+                        numbers.add(number);
+                        maxPersistence[0] = persistence;
+                        assertTrue(progressCounters.getCandidates() >= numbers.size() * 1000L);
+                    }
+                }, 1000);
+
+        assertEquals(counters.getCandidates() / 1000, numbers.size());
+        for (int i = 1; i < numbers.size(); i++) {
+            assertTrue(new BigInteger(numbers.get(i - 1)).compareTo(new BigInteger(numbers.get(i))) < 0);
+        }
+        assertTrue(maxPersistence[0] >= 1 && maxPersistence[0] <= 9, "Had: " + maxPersistence[0]);
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new MultiplicativeDigitalRootPipeline(0, 1, 1, Executors.defaultThreadFactory()));
+        assertThrows(IllegalArgumentException.class, () -> new MultiplicativeDigitalRootPipeline(1, 0, 1, Executors.defaultThreadFactory()));
+        assertThrows(IllegalArgumentException.class, () -> new MultiplicativeDigitalRootPipeline(1, 1, 0, Executors.defaultThreadFactory()));
+        assertThrows(IllegalArgumentException.class, () -> new MultiplicativeDigitalRootPipeline(1, 1, 1, Executors.defaultThreadFactory())
+                .search(MathUtils.MAX_DIGITS, 20, new SearchCounters(), () -> false));
+    }
+}
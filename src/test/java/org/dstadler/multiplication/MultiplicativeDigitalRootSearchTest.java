@@ -0,0 +1,70 @@
+package org.dstadler.multiplication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class MultiplicativeDigitalRootSearchTest {
+    @Test
+    public void testParse() {
+        SearchEngine.Result result = MultiplicativeDigitalRootSearch.parse(new String[] {
+                "--representation", "byte-array-integer", "--target", "20", "--max-digits", "4",
+                "--time-budget", "60", "--progress", "1000" })
+                .listener(new SearchListener() {
+                })
+                .build()
+                .run();
+
+        assertEquals(SearchEngine.StopReason.DIGIT_LIMIT, result.getStopReason());
+        assertEquals("6788", result.getRecords().get(6));
+    }
+
+    @Test
+    public void testParseThreads() {
+        SearchEngine.Result result = MultiplicativeDigitalRootSearch.parse(new String[] {
+                "--representation", "HISTOGRAM", "--threads", "2", "--target", "5" })
+                .listener(new SearchListener() {
+                })
+                .build()
+                .run();
+
+        assertEquals(SearchEngine.StopReason.TARGET_REACHED, result.getStopReason());
+        assertEquals("679", result.getRecords().get(5));
+    }
+
+    @Test
+    public void testParseRanks() {
+        SearchEngine.Result result = MultiplicativeDigitalRootSearch.parse(new String[] {
+                "--representation", "histogram", "--from-rank", "8", "--to-rank", "10" })
+                .listener(new SearchListener() {
+                })
+                .build()
+                .run();
+
+        assertEquals(SearchEngine.StopReason.RANK_LIMIT, result.getStopReason());
+        assertEquals(2, result.getCounters().getCandidates());
+        assertEquals("26", result.getRecords().get(2));
+    }
+
+    @Test
+    public void testParseBase() {
+        SearchEngine.Result result = MultiplicativeDigitalRootSearch.parse(new String[] {
+                "--base", "16", "--max-digits", "3" })
+                .listener(new SearchListener() {
+                })
+                .build()
+                .run();
+
+        assertEquals(SearchEngine.StopReason.DIGIT_LIMIT, result.getStopReason());
+        assertEquals("29", result.getRecords().get(2));
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> MultiplicativeDigitalRootSearch.parse(new String[] { "--target" }));
+        assertThrows(IllegalArgumentException.class, () -> MultiplicativeDigitalRootSearch.parse(new String[] { "--target", "abc" }));
+        assertThrows(IllegalArgumentException.class, () -> MultiplicativeDigitalRootSearch.parse(new String[] { "--unknown", "1" }));
+        assertThrows(IllegalArgumentException.class, () -> MultiplicativeDigitalRootSearch.parse(new String[] { "--representation", "long" }));
+    }
+}
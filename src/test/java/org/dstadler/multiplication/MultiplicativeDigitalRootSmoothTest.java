@@ -0,0 +1,166 @@
+package org.dstadler.multiplication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+public class MultiplicativeDigitalRootSmoothTest {
+    @Test
+    public void testSearch() {
+        SearchCounters counters = new SearchCounters();
+        SortedMap<Integer, String> results = MultiplicativeDigitalRootSmooth.search(20, counters);
+
+        // https://oeis.org/A003001
+        SortedMap<Integer, String> expected = new TreeMap<>();
+        expected.put(3, "39");
+        expected.put(4, "77");
+        expected.put(5, "679");
+        expected.put(6, "6788");
+        expected.put(7, "68889");
+        expected.put(8, "2677889");
+        expected.put(9, "26888999");
+        expected.put(10, "3778888999");
+        expected.put(11, "277777788888899");
+        assertEquals(expected, results);
+
+        assertTrue(counters.getCandidates() > counters.getChecks());
+        assertTrue(counters.getChecks() > 0);
+
+        // larger products do not lead to smaller numbers or higher persistence
+        assertEquals(expected, MultiplicativeDigitalRootSmooth.search(150, new SearchCounters()));
+    }
+
+    @Test
+    public void testCompareWithAllProducts() {
+        // compute every product completely, so the windows of digits are not used
+        int maxDigits = 40;
+        BigInteger limit = BigInteger.TEN.pow(maxDigits);
+        SortedMap<Integer, String> expected = new TreeMap<>();
+        long products = 0;
+        for (int sevens = 0; MathUtils.getProduct(0, 0, 0, sevens).compareTo(limit) < 0; sevens++) {
+            for (int threes = 0; MathUtils.getProduct(0, threes, 0, sevens).compareTo(limit) < 0; threes++) {
+                for (int twos = 0; MathUtils.getProduct(twos, threes, 0, sevens).compareTo(limit) < 0; twos++) {
+                    products++;
+                    check(expected, twos, threes, 0, sevens);
+                }
+                for (int fives = 1; MathUtils.getProduct(0, threes, fives, sevens).compareTo(limit) < 0; fives++) {
+                    products++;
+                    check(expected, 0, threes, fives, sevens);
+                }
+            }
+        }
+
+        SearchCounters counters = new SearchCounters();
+        assertEquals(expected, MultiplicativeDigitalRootSmooth.search(maxDigits, counters));
+        assertEquals(products, counters.getCandidates());
+    }
+
+    private static void check(SortedMap<Integer, String> expected, int twos, int threes, int fives, int sevens) {
+        String product = MathUtils.getProduct(twos, threes, fives, sevens).toString();
+        if (product.length() > 1 && !product.contains("0")) {
+            String number = MultiplicativeDigitalRootSmooth.getSmallestPreimage(twos, threes, fives, sevens);
+            int persistence = MathUtils.getPersistence(number);
+            if (persistence <= 2) {
+                // e.g. 26 => 12 => 2, but 25 with a zero in the product is smaller
+                return;
+            }
+
+            String existing = expected.get(persistence);
+            if (existing == null || new BigInteger(number).compareTo(new BigInteger(existing)) < 0) {
+                expected.put(persistence, number);
+            }
+        }
+    }
+
+    @Test
+    public void testSmallestPreimage() {
+        assertEquals("1", MultiplicativeDigitalRootSmooth.getSmallestPreimage(0, 0, 0, 0));
+        assertEquals("2", MultiplicativeDigitalRootSmooth.getSmallestPreimage(1, 0, 0, 0));
+        assertEquals("4", MultiplicativeDigitalRootSmooth.getSmallestPreimage(2, 0, 0, 0));
+        assertEquals("6", MultiplicativeDigitalRootSmooth.getSmallestPreimage(1, 1, 0, 0));
+        assertEquals("26", MultiplicativeDigitalRootSmooth.getSmallestPreimage(2, 1, 0, 0));
+        assertEquals("29", MultiplicativeDigitalRootSmooth.getSmallestPreimage(1, 2, 0, 0));
+        assertEquals("39", MultiplicativeDigitalRootSmooth.getSmallestPreimage(0, 3, 0, 0));
+        assertEquals("48", MultiplicativeDigitalRootSmooth.getSmallestPreimage(5, 0, 0, 0));
+        assertEquals("68", MultiplicativeDigitalRootSmooth.getSmallestPreimage(4, 1, 0, 0));
+        assertEquals("25", MultiplicativeDigitalRootSmooth.getSmallestPreimage(1, 0, 1, 0));
+        assertEquals("277777788888899", MultiplicativeDigitalRootSmooth.getSmallestPreimage(19, 4, 0, 6));
+
+        // the smallest of all numbers with the same product of digits
+        for (int product = 2; product < 100_000; product++) {
+            int[] exponents = new int[4];
+            int remaining = product;
+            int[] primes = { 2, 3, 5, 7 };
+            for (int i = 0; i < primes.length; i++) {
+                while (remaining % primes[i] == 0) {
+                    exponents[i]++;
+                    remaining /= primes[i];
+                }
+            }
+            if (remaining != 1) {
+                continue;
+            }
+
+            assertEquals(findSmallest(product), MultiplicativeDigitalRootSmooth.getSmallestPreimage(
+                    exponents[0], exponents[1], exponents[2], exponents[3]), "Failed for " + product);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> MultiplicativeDigitalRootSmooth.getSmallestPreimage(-1, 0, 0, 0));
+    }
+
+    private static String findSmallest(int product) {
+        // smallest number with ascending digits 2 to 9 and the given product via a search by length
+        for (int length = 1; ; length++) {
+            String number = findSmallest(product, length, 2);
+            if (number != null) {
+                return number;
+            }
+        }
+    }
+
+    private static String findSmallest(int product, int length, int minDigit) {
+        if (length == 0) {
+            return product == 1 ? "" : null;
+        }
+        for (int digit = minDigit; digit <= 9; digit++) {
+            if (product % digit == 0) {
+                String rest = findSmallest(product / digit, length - 1, digit);
+                if (rest != null) {
+                    return digit + rest;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> MultiplicativeDigitalRootSmooth.search(0, new SearchCounters()));
+    }
+
+    @Test
+    public void testReport() {
+        SortedMap<Integer, String> reported = new TreeMap<>();
+        int[] finished = new int[1];
+        MultiplicativeDigitalRootSmooth.report(30, new SearchListener() {
+            @Override
+            public void recordFound(int persistence, String number, SearchCounters counters) {
+                reported.put(persistence, number);
+            }
+
+            @Override
+            public void finished(int maxPersistence, SearchCounters counters) {
+                finished[0] = maxPersistence;
+            }
+        });
+
+        assertEquals(MultiplicativeDigitalRootSmooth.search(30, new SearchCounters()), reported);
+        assertEquals((int) reported.lastKey(), finished[0]);
+    }
+}
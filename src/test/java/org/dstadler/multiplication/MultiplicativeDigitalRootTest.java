@@ -1,6 +1,7 @@
 package org.dstadler.multiplication;
 
 import static org.dstadler.multiplication.MathUtils.MAX_DIGITS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -39,6 +40,46 @@ public class MultiplicativeDigitalRootTest {
         assertTrue(MultiplicativeDigitalRoot.candidate("277777788888899"));
     }
 
+    @Test
+    public void testCandidateCharArray() {
+        // only the given number of digits are looked at
+        assertTrue(MultiplicativeDigitalRoot.candidate("3910".toCharArray(), 2));
+        assertFalse(MultiplicativeDigitalRoot.candidate("3910".toCharArray(), 3));
+        assertTrue(MultiplicativeDigitalRoot.candidate(new char[5], 0));
+    }
+
+    @Test
+    public void testIncrement() {
+        char[] number = new char[7];
+        int length = 0;
+        for (int i = 1; i < 10_000_000; i++) {
+            String str = Integer.toString(i);
+            if (!isAscendingWithoutZeroAndOne(str)) {
+                continue;
+            }
+
+            length = MultiplicativeDigitalRoot.increment(number, length);
+            assertEquals(str, new String(number, 0, length));
+            assertEquals(MultiplicativeDigitalRoot.candidate(str), MultiplicativeDigitalRoot.candidate(number, length));
+        }
+
+        // all nines means we would overflow the buffer next
+        assertEquals("9999999", new String(number));
+        final int last = length;
+        assertThrows(IllegalStateException.class, () -> MultiplicativeDigitalRoot.increment(number, last));
+    }
+
+    private static boolean isAscendingWithoutZeroAndOne(String str) {
+        char prev = '2';
+        for (char c : str.toCharArray()) {
+            if (c < prev) {
+                return false;
+            }
+            prev = c;
+        }
+        return true;
+    }
+
     @Test
     public void testCandidateExhausted() {
         // all nines means we would overflow the buffer next
@@ -0,0 +1,144 @@
+package org.dstadler.multiplication;
+
+import static org.dstadler.multiplication.MathUtils.MAX_DIGITS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+public class PersistenceCacheTest {
+    @Test
+    public void testGetAndPut() {
+        PersistenceCache cache = new PersistenceCache(16);
+        assertEquals(16, cache.getCapacity());
+
+        assertEquals(-1, cache.get(0, 3, 0, 0));
+        cache.put(0, 3, 0, 0, 3);
+        assertEquals(3, cache.get(0, 3, 0, 0));
+        assertEquals(-1, cache.get(3, 0, 0, 0));
+
+        // putting again does not change anything
+        cache.put(0, 3, 0, 0, 3);
+        assertEquals(3, cache.get(0, 3, 0, 0));
+
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(0, cache.getEvictions());
+        assertEquals("hits: 2, misses: 2, evictions: 0", cache.toString());
+    }
+
+    @Test
+    public void testCapacity() {
+        assertEquals(4, new PersistenceCache(1).getCapacity());
+        assertEquals(4, new PersistenceCache(4).getCapacity());
+        assertEquals(8, new PersistenceCache(5).getCapacity());
+        assertEquals(1024, new PersistenceCache(1000).getCapacity());
+
+        assertThrows(IllegalArgumentException.class, () -> new PersistenceCache(0));
+        assertThrows(IllegalArgumentException.class, () -> new PersistenceCache(-1));
+    }
+
+    @Test
+    public void testInvalid() {
+        PersistenceCache cache = new PersistenceCache(16);
+        assertThrows(IllegalArgumentException.class, () -> cache.put(1, 1, 1, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> cache.put(1, 1, 1, 1, 64));
+
+        // too large exponents are not cached
+        cache.put(100_000, 1, 1, 1, 2);
+        assertEquals(-1, cache.get(100_000, 1, 1, 1));
+        cache.put(-1, 1, 1, 1, 2);
+        assertEquals(-1, cache.get(-1, 1, 1, 1));
+    }
+
+    @Test
+    public void testEviction() {
+        PersistenceCache cache = new PersistenceCache(4);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, 0, 0, 0, 1 + i % 10);
+        }
+
+        assertEquals(96, cache.getEvictions());
+
+        int found = 0;
+        for (int i = 0; i < 100; i++) {
+            int persistence = cache.get(i, 0, 0, 0);
+            if (persistence != -1) {
+                assertEquals(1 + i % 10, persistence);
+                found++;
+            }
+        }
+        assertTrue(found > 0 && found <= 4, "Had " + found);
+    }
+
+    @Test
+    public void testPersistence() {
+        PersistenceCache cache = new PersistenceCache(1024);
+        DigitHistogram histogram = new DigitHistogram();
+        byte[] number = new byte[MAX_DIGITS];
+        for (int i = 0; i < 10_000; i++) {
+            histogram.next();
+
+            assertEquals(MathUtils.getPersistence(histogram), MathUtils.getPersistence(histogram, cache));
+
+            histogram.toByteArray(number);
+            assertEquals(MathUtils.getPersistence(number), MathUtils.getPersistence(number, cache));
+        }
+
+        assertTrue(cache.getHits() >= 10_000, "Had " + cache);
+
+        checkPersistence(cache, 1, "0");
+        checkPersistence(cache, 1, "2");
+        checkPersistence(cache, 1, "10");
+        checkPersistence(cache, 2, "25");
+        checkPersistence(cache, 3, "39");
+        checkPersistence(cache, 11, "277777788888899");
+        checkPersistence(cache, 11, "1277777788888899");
+        checkPersistence(cache, 1, "847728184793722273740");
+    }
+
+    private void checkPersistence(PersistenceCache cache, int expected, String input) {
+        byte[] number = new byte[MAX_DIGITS];
+        MathUtils.toByteArray(number, new BigInteger(input));
+        assertEquals(expected, MathUtils.getPersistence(number, cache));
+
+        // also without terminator
+        assertEquals(expected, MathUtils.getPersistence(
+                Arrays.copyOf(number, input.length()), cache));
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        PersistenceCache cache = new PersistenceCache(256);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    DigitHistogram histogram = new DigitHistogram();
+                    for (int i = 0; i < 5_000; i++) {
+                        histogram.next();
+                        assertEquals(MathUtils.getPersistence(histogram), MathUtils.getPersistence(histogram, cache));
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(20_000, cache.getHits() + cache.getMisses());
+    }
+}
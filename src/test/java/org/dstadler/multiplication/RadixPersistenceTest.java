@@ -0,0 +1,260 @@
+package org.dstadler.multiplication;
+
+import static org.dstadler.multiplication.MathUtils.MAX_DIGITS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+public class RadixPersistenceTest {
+    @Test
+    public void testPersistenceBase10() {
+        RadixPersistence radix = new RadixPersistence(10);
+        for (String str : new String[] { "0", "5", "10", "25", "39", "77", "679", "6788", "68889", "2677889",
+                "26888999", "3778888999", "277777788888899", "4888888888888888888888888888888888888888888888888999999999" }) {
+            BigInteger number = new BigInteger(str);
+            assertEquals(MathUtils.getPersistence(str), radix.getPersistence(number), "Failed for " + str);
+            if (str.length() < 19) {
+                assertEquals(MathUtils.getPersistence(str), radix.getPersistence(number.longValue()), "Failed for " + str);
+            }
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            char[] chars = new char[1 + random.nextInt(60)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) ('1' + random.nextInt(9));
+            }
+            String str = new String(chars);
+            assertEquals(MathUtils.getPersistence(str), radix.getPersistence(new BigInteger(str)), "Failed for " + str);
+        }
+    }
+
+    @Test
+    public void testPersistenceOtherBases() {
+        Random random = new Random(42);
+        for (int base = RadixPersistence.MIN_BASE; base <= RadixPersistence.MAX_BASE; base++) {
+            RadixPersistence radix = new RadixPersistence(base);
+            for (int i = 0; i < 300; i++) {
+                // mostly numbers without zeros, otherwise the persistence is nearly always 1
+                char[] chars = new char[1 + random.nextInt(100)];
+                for (int j = 0; j < chars.length; j++) {
+                    chars[j] = Character.forDigit(1 + random.nextInt(base - 1), base);
+                }
+                BigInteger number = new BigInteger(new String(chars), base);
+
+                int expected = getPersistence(number, base);
+                assertEquals(expected, radix.getPersistence(number), "Failed for " + number.toString(base) + " in base " + base);
+                if (number.bitLength() < Long.SIZE) {
+                    assertEquals(expected, radix.getPersistence(number.longValue()),
+                            "Failed for " + number.toString(base) + " in base " + base);
+                }
+            }
+        }
+
+        assertEquals(2, new RadixPersistence(16).getPersistence(0x2f));
+        assertEquals(1, new RadixPersistence(16).getPersistence(0x10));
+        assertThrows(IllegalArgumentException.class, () -> new RadixPersistence(16).getPersistence(-1));
+        assertThrows(IllegalArgumentException.class, () -> new RadixPersistence(16).getPersistence(BigInteger.ONE.negate()));
+    }
+
+    /**
+     * Straightforward computation via Strings in the given base.
+     */
+    private static int getPersistence(BigInteger number, int base) {
+        int persistence = 1;
+        while (true) {
+            BigInteger product = BigInteger.ONE;
+            for (char c : number.toString(base).toCharArray()) {
+                product = product.multiply(BigInteger.valueOf(Character.digit(c, base)));
+            }
+
+            if (product.compareTo(BigInteger.valueOf(base)) < 0) {
+                return persistence;
+            }
+
+            persistence++;
+            number = product;
+        }
+    }
+
+    @Test
+    public void testToByteArray() {
+        Random random = new Random(42);
+        for (int base = RadixPersistence.MIN_BASE; base <= RadixPersistence.MAX_BASE; base++) {
+            RadixPersistence radix = new RadixPersistence(base);
+            for (int i = 0; i < 100; i++) {
+                BigInteger number = new BigInteger(random.nextInt(3000), random);
+                byte[] digits = new byte[number.bitLength() + 2];
+                Arrays.fill(digits, (byte) 5);
+
+                radix.toByteArray(digits, number);
+                String expected = number.toString(base);
+                assertEquals(expected, radix.toString(digits), "Failed for base " + base);
+                assertEquals(-1, digits[expected.length()], "Failed for base " + base);
+            }
+        }
+
+        byte[] digits = new byte[3];
+        new RadixPersistence(16).toByteArray(digits, BigInteger.valueOf(0xff));
+        assertEquals(15, digits[0]);
+        assertEquals(15, digits[1]);
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> new RadixPersistence(16).toByteArray(new byte[2], BigInteger.valueOf(0x100)));
+        assertThrows(ArrayIndexOutOfBoundsException.class, () -> new RadixPersistence(7).toByteArray(new byte[2], BigInteger.valueOf(49)));
+    }
+
+    @Test
+    public void testIncrement() {
+        for (int base : new int[] { 3, 5, 10, 16 }) {
+            RadixPersistence radix = new RadixPersistence(base);
+            byte[] number = new byte[7];
+            Arrays.fill(number, (byte) -1);
+            int digits = 0;
+            for (int i = 1; i < 1_000_000; i++) {
+                String str = Integer.toString(i, base);
+                if (str.length() >= number.length) {
+                    break;
+                }
+                if (!isAscendingFromTwo(str, base)) {
+                    continue;
+                }
+
+                digits = radix.increment(number, digits);
+                assertEquals(str, radix.toString(number), "Failed for base " + base);
+                assertEquals(str.length() - 1, digits, "Failed for base " + base);
+            }
+        }
+
+        // all digits are the highest one, so the next number would overwrite the "-1"
+        byte[] number = { 4, 4, -1 };
+        assertThrows(IllegalStateException.class, () -> new RadixPersistence(5).increment(number, 1));
+    }
+
+    private static boolean isAscendingFromTwo(String str, int base) {
+        int prev = 2;
+        for (char c : str.toCharArray()) {
+            int digit = Character.digit(c, base);
+            if (digit < prev) {
+                return false;
+            }
+            prev = digit;
+        }
+        return true;
+    }
+
+    @Test
+    public void testCandidate() {
+        RadixPersistence radix = new RadixPersistence(10);
+
+        // all known smallest numbers above persistence 2 need to be candidates
+        for (String str : new String[] { "39", "77", "679", "6788", "68889", "2677889", "26888999", "3778888999",
+                "277777788888899" }) {
+            assertTrue(radix.candidate(toByteArray(radix, str, 10)), "Failed for " + str);
+        }
+
+        // 2 and 4 can be replaced by 8, products with 2 and 5 end with zero
+        for (String str : new String[] { "10", "21", "22", "23", "24", "33", "25", "45", "2579", "598" }) {
+            assertFalse(radix.candidate(toByteArray(radix, str, 10)), "Failed for " + str);
+        }
+
+        // in base 10 only numbers are rejected which are candidates for the byte-array search
+        byte[] number = new byte[MAX_DIGITS];
+        Arrays.fill(number, (byte) -1);
+        int digits = 0;
+        for (int i = 0; i < 100_000; i++) {
+            digits = radix.increment(number, digits);
+            if (radix.candidate(number)) {
+                assertTrue(MultiplicativeDigitalRootByteArray.candidate(number), "Failed for " + MathUtils.toString(number));
+            }
+        }
+
+        RadixPersistence hex = new RadixPersistence(16);
+        assertTrue(hex.candidate(toByteArray(hex, "2f", 16)));
+        assertTrue(hex.candidate(toByteArray(hex, "3ff", 16)));
+        assertFalse(hex.candidate(toByteArray(hex, "27", 16)));
+        assertFalse(hex.candidate(toByteArray(hex, "28", 16)));
+        assertFalse(hex.candidate(toByteArray(hex, "4888", 16)));
+        assertFalse(hex.candidate(toByteArray(hex, "f2", 16)));
+
+        assertThrows(IllegalStateException.class, () -> hex.candidate(new byte[] { 5, 5, 5 }));
+    }
+
+    private static byte[] toByteArray(RadixPersistence radix, String str, int base) {
+        byte[] number = new byte[MAX_DIGITS];
+        radix.toByteArray(number, new BigInteger(str, base));
+        return number;
+    }
+
+    @Test
+    public void testSearchOtherBases() {
+        for (int base : new int[] { 3, 4, 5, 6, 7, 8, 12, 16 }) {
+            // all numbers below base^digits
+            int digits = (int) (Math.log(200_000) / Math.log(base));
+            int limit = BigInteger.valueOf(base).pow(digits).intValueExact();
+
+            SortedMap<Integer, String> expected = new TreeMap<>();
+            RadixPersistence radix = new RadixPersistence(base);
+            for (int i = 0; i < limit; i++) {
+                int persistence = radix.getPersistence(i);
+                if (persistence > 2) {
+                    expected.putIfAbsent(persistence, Integer.toString(i, base));
+                }
+            }
+
+            SearchEngine.Result result = SearchEngine.builder()
+                    .base(base)
+                    .maxDigits(digits)
+                    .listener(new SearchListener() {
+                    })
+                    .build()
+                    .run();
+
+            assertEquals(SearchEngine.StopReason.DIGIT_LIMIT, result.getStopReason(), "Failed for base " + base);
+            assertEquals(expected, result.getRecords().tailMap(3), "Failed for base " + base);
+        }
+    }
+
+    @Test
+    public void testSearchUpToDigitLimit() {
+        // in small bases there are only few candidates per length, so the default limit of digits is reached quickly
+        for (int base : new int[] { 3, 4 }) {
+            SearchEngine.Result result = SearchEngine.builder()
+                    .base(base)
+                    .listener(new SearchListener() {
+                    })
+                    .build()
+                    .run();
+
+            assertEquals(SearchEngine.StopReason.DIGIT_LIMIT, result.getStopReason(), "Failed for base " + base);
+        }
+    }
+
+    @Test
+    public void testSearchWithProgress() {
+        // the default listener prints progress with digits above 9
+        SearchEngine.Result result = SearchEngine.builder()
+                .base(16)
+                .maxDigits(6)
+                .progressInterval(1000)
+                .build()
+                .run();
+        assertEquals(SearchEngine.StopReason.DIGIT_LIMIT, result.getStopReason());
+
+        new ConsoleSearchListener(0, 16).progress("25ab", 2, result.getCounters());
+        new ConsoleSearchListener(0, 3).progress("222", 2, result.getCounters());
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new RadixPersistence(2));
+        assertThrows(IllegalArgumentException.class, () -> new RadixPersistence(37));
+    }
+}
@@ -0,0 +1,203 @@
+package org.dstadler.multiplication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ResultJournalTest {
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("ResultJournalTest", ".journal");
+        Files.delete(file);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        ResultJournal.open(file, 0).close();
+        assertTrue(ResultJournal.read(file).isEmpty());
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        SearchCounters counters = new SearchCounters(System.currentTimeMillis() - 5000);
+        counters.addCandidates(1234);
+        counters.addChecks(567);
+
+        try (ResultJournal journal = ResultJournal.open(file, 10)) {
+            journal.recordFound(3, "39", counters);
+            journal.progress("77", 3, counters);
+            journal.recordFound(11, "277777788888899", counters);
+            journal.finished(11, counters);
+        }
+
+        List<ResultJournal.Entry> entries = ResultJournal.read(file);
+        assertEquals(3, entries.size(), "Had: " + entries);
+
+        ResultJournal.Entry entry = entries.get(0);
+        assertEquals(ResultJournal.Type.RECORD, entry.getType());
+        assertEquals(3, entry.getPersistence());
+        assertEquals("39", entry.getNumber());
+        assertEquals(1234, entry.getCandidates());
+        assertEquals(567, entry.getChecks());
+        assertTrue(entry.getElapsed() >= 5000);
+        assertTrue(entry.getTime() > 0);
+
+        assertEquals("277777788888899", entries.get(1).getNumber());
+        assertEquals(ResultJournal.Type.FINISHED, entries.get(2).getType());
+        assertEquals(11, entries.get(2).getPersistence());
+        assertEquals("", entries.get(2).getNumber());
+        assertTrue(entries.get(2).toString().startsWith("FINISHED,11,,"), entries.get(2).toString());
+
+        // appends to the existing file
+        try (ResultJournal journal = ResultJournal.open(file, 10)) {
+            journal.recordFound(4, "77", counters);
+        }
+        entries = ResultJournal.read(file);
+        assertEquals(4, entries.size());
+        assertEquals("77", entries.get(3).getNumber());
+    }
+
+    @Test
+    public void testManyEntries() throws IOException {
+        SearchCounters counters = new SearchCounters();
+        try (ResultJournal journal = ResultJournal.open(file, 1000)) {
+            // more than the queue can hold
+            for (int i = 0; i < 10_000; i++) {
+                counters.addChecks(1);
+                journal.recordFound(i % 12, Integer.toString(i), counters);
+            }
+        }
+
+        List<ResultJournal.Entry> entries = ResultJournal.read(file);
+        assertEquals(10_000, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(Integer.toString(i), entries.get(i).getNumber());
+            assertEquals(i + 1, entries.get(i).getChecks());
+        }
+    }
+
+    @Test
+    public void testPartialEntry() throws IOException {
+        SearchCounters counters = new SearchCounters();
+        try (ResultJournal journal = ResultJournal.open(file, 0)) {
+            journal.recordFound(3, "39", counters);
+            journal.recordFound(4, "77", counters);
+        }
+
+        // simulate a crash while writing the last entry
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        List<ResultJournal.Entry> entries = ResultJournal.read(file);
+        assertEquals(1, entries.size());
+        assertEquals("39", entries.get(0).getNumber());
+
+        // a broken checksum also ends the journal
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(8 + 4 + 1);
+            raf.write(7);
+        }
+        assertTrue(ResultJournal.read(file).isEmpty());
+    }
+
+    @Test
+    public void testAppendAfterPartialEntry() throws IOException {
+        SearchCounters counters = new SearchCounters();
+        try (ResultJournal journal = ResultJournal.open(file, 0)) {
+            journal.recordFound(3, "39", counters);
+            journal.recordFound(4, "77", counters);
+        }
+        long complete = Files.size(file);
+
+        // simulate a crash while writing a third entry
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(complete);
+            raf.write(new byte[] { 0, 0, 0, 50, 0, 0, 0 });
+        }
+
+        // the torn entry is cut off, so the appended ones can be read
+        try (ResultJournal journal = ResultJournal.open(file, 0)) {
+            assertEquals(complete, Files.size(file));
+            journal.recordFound(5, "679", counters);
+            journal.finished(5, counters);
+        }
+
+        List<ResultJournal.Entry> entries = ResultJournal.read(file);
+        assertEquals(4, entries.size(), "Had: " + entries);
+        assertEquals("39", entries.get(0).getNumber());
+        assertEquals("77", entries.get(1).getNumber());
+        assertEquals("679", entries.get(2).getNumber());
+        assertEquals(ResultJournal.Type.FINISHED, entries.get(3).getType());
+
+        // also entries after a broken checksum
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(complete + 4 + 1);
+            raf.write(7);
+        }
+        try (ResultJournal journal = ResultJournal.open(file, 0)) {
+            journal.recordFound(6, "6788", counters);
+        }
+
+        entries = ResultJournal.read(file);
+        assertEquals(3, entries.size(), "Had: " + entries);
+        assertEquals("6788", entries.get(2).getNumber());
+    }
+
+    @Test
+    public void testNotAJournal() throws IOException {
+        Files.write(file, "some text".getBytes(StandardCharsets.US_ASCII));
+
+        assertThrows(IOException.class, () -> ResultJournal.read(file));
+        assertThrows(IOException.class, () -> ResultJournal.open(file, 0));
+        assertThrows(IllegalArgumentException.class, () -> ResultJournal.open(file, -1));
+    }
+
+    @Test
+    public void testClosed() throws IOException {
+        ResultJournal journal = ResultJournal.open(file, 0);
+        journal.close();
+        journal.close();
+
+        assertThrows(IllegalStateException.class, () -> journal.recordFound(3, "39", new SearchCounters()));
+    }
+
+    @Test
+    public void testSearchEngine() throws IOException {
+        SearchEngine.Result result = SearchEngine.builder()
+                .targetPersistence(7)
+                .journal(file)
+                .listener(new SearchListener() {
+                })
+                .build()
+                .run();
+
+        List<ResultJournal.Entry> entries = ResultJournal.read(file);
+        assertEquals(result.getRecords().size() + 1, entries.size());
+        for (ResultJournal.Entry entry : entries.subList(0, entries.size() - 1)) {
+            assertEquals(ResultJournal.Type.RECORD, entry.getType());
+            assertEquals(result.getRecords().get(entry.getPersistence()), entry.getNumber());
+        }
+        assertEquals("68889", entries.get(entries.size() - 2).getNumber());
+        assertEquals(ResultJournal.Type.FINISHED, entries.get(entries.size() - 1).getType());
+        assertEquals(result.getCounters().getChecks(), entries.get(entries.size() - 1).getChecks());
+    }
+}
@@ -0,0 +1,73 @@
+package org.dstadler.multiplication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class SearchCountersTest {
+    @Test
+    public void testCounters() {
+        SearchCounters counters = new SearchCounters();
+        assertEquals(0, counters.getCandidates());
+        assertEquals(0, counters.getChecks());
+
+        counters.addCandidates(5);
+        counters.addCandidates(Integer.MAX_VALUE);
+        counters.addChecks(3);
+
+        // does not overflow like the previous int counters
+        assertEquals(5L + Integer.MAX_VALUE, counters.getCandidates());
+        assertEquals(3, counters.getChecks());
+        assertTrue(counters.toString().contains("checked: 3"), counters.toString());
+    }
+
+    @Test
+    public void testElapsed() {
+        long start = System.currentTimeMillis() - 5000;
+        SearchCounters counters = new SearchCounters(start);
+        assertEquals(start, counters.getStart());
+        assertTrue(counters.getElapsedMillis() >= 5000);
+    }
+
+    @Test
+    public void testConcurrent() throws InterruptedException {
+        SearchCounters counters = new SearchCounters();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    counters.addCandidates(2);
+                    counters.addChecks(1);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80000, counters.getCandidates());
+        assertEquals(40000, counters.getChecks());
+    }
+
+    @Test
+    public void testListenerDefaults() {
+        // all methods have a default implementation
+        SearchListener listener = new SearchListener() {
+        };
+        SearchCounters counters = new SearchCounters();
+        listener.recordFound(3, "39", counters);
+        listener.progress("39", 3, counters);
+        listener.finished(3, counters);
+
+        // only prints
+        new ConsoleSearchListener(0).progress("", 1, counters);
+        new ConsoleSearchListener(0).progress("39", 3, counters);
+    }
+}
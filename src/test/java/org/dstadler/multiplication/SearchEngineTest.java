@@ -0,0 +1,321 @@
+package org.dstadler.multiplication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+public class SearchEngineTest {
+    private static final SearchListener SILENT = new SearchListener() {
+    };
+
+    // https://oeis.org/A003001
+    private static final String[] SMALLEST = { null, null, null, "39", "77", "679", "6788", "68889",
+            "2677889", "26888999" };
+
+    @Test
+    public void testRepresentations() {
+        for (SearchEngine.Representation representation : SearchEngine.Representation.values()) {
+            int target = 9;
+
+            SearchEngine.Result result = SearchEngine.builder()
+                    .representation(representation)
+                    .targetPersistence(target)
+                    .listener(SILENT)
+                    .build()
+                    .run();
+
+            assertEquals(SearchEngine.StopReason.TARGET_REACHED, result.getStopReason(), "Failed for " + representation);
+            assertEquals(target, result.getMaxPersistence(), "Failed for " + representation);
+            for (int persistence = 3; persistence <= target; persistence++) {
+                assertEquals(SMALLEST[persistence], result.getRecords().get(persistence),
+                        "Failed for " + representation + " and " + persistence + ": " + result);
+            }
+            assertTrue(result.getCounters().getChecks() > 0);
+            assertTrue(result.getCounters().getCandidates() >= result.getCounters().getChecks());
+        }
+    }
+
+    @Test
+    public void testParallel() {
+        SearchEngine.Result result = SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM)
+                .targetPersistence(9)
+                .threads(3)
+                .listener(SILENT)
+                .build()
+                .run();
+
+        assertEquals(SearchEngine.StopReason.TARGET_REACHED, result.getStopReason());
+        SearchEngine.Result sequential = SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM)
+                .targetPersistence(9)
+                .listener(SILENT)
+                .build()
+                .run();
+        assertEquals(sequential.getRecords(), result.getRecords());
+    }
+
+    @Test
+    public void testPipeline() {
+        SearchEngine.Result result = SearchEngine.builder()
+                .representation(SearchEngine.Representation.BYTE_ARRAY)
+                .targetPersistence(10)
+                .threads(3)
+                .batchSize(16)
+                .ringCapacity(4)
+                .listener(SILENT)
+                .build()
+                .run();
+
+        assertEquals(SearchEngine.StopReason.TARGET_REACHED, result.getStopReason());
+        assertEquals("3778888999", result.getRecords().get(10));
+        for (int persistence = 3; persistence <= 9; persistence++) {
+            assertEquals(SMALLEST[persistence], result.getRecords().get(persistence));
+        }
+        assertTrue(result.getCounters().getCandidates() >= result.getCounters().getChecks());
+    }
+
+    @Test
+    public void testDigitLimit() {
+        for (SearchEngine.Representation representation : SearchEngine.Representation.values()) {
+            boolean parallel = representation == SearchEngine.Representation.HISTOGRAM ||
+                    representation == SearchEngine.Representation.BYTE_ARRAY;
+            for (int threads = 1; threads <= (parallel ? 2 : 1); threads++) {
+                SearchEngine.Result result = SearchEngine.builder()
+                        .representation(representation)
+                        .maxDigits(3)
+                        .threads(threads)
+                        .listener(SILENT)
+                        .build()
+                        .run();
+
+                assertEquals(SearchEngine.StopReason.DIGIT_LIMIT, result.getStopReason(), "Failed for " + representation);
+                assertEquals(5, result.getMaxPersistence(), "Failed for " + representation);
+                assertEquals("679", result.getRecords().get(5), "Failed for " + representation);
+            }
+        }
+    }
+
+    @Test
+    public void testLargestDigitLimit() {
+        // all numbers with 99 digits are only enumerated quickly with very few digits below 7
+        SearchEngine.Result result = SearchEngine.builder()
+                .representation(SearchEngine.Representation.BYTE_ARRAY)
+                .targetPersistence(12)
+                .maxDigits(MathUtils.MAX_DIGITS - 1)
+                .timeBudget(Duration.ofMillis(200))
+                .listener(SILENT)
+                .build()
+                .run();
+
+        assertEquals(SearchEngine.StopReason.TIME_BUDGET, result.getStopReason());
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        SearchEngine engine = SearchEngine.builder()
+                .targetPersistence(20)
+                .listener(SILENT)
+                .build();
+
+        Thread thread = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            engine.cancel();
+        });
+        thread.start();
+
+        SearchEngine.Result result = engine.run();
+        thread.join();
+
+        assertEquals(SearchEngine.StopReason.CANCELLED, result.getStopReason());
+        assertTrue(result.getCounters().getCandidates() > 0);
+
+        // stays cancelled
+        result = engine.run();
+        assertEquals(SearchEngine.StopReason.CANCELLED, result.getStopReason());
+        assertEquals(0, result.getCounters().getCandidates());
+    }
+
+    @Test
+    public void testCancelParallel() {
+        SearchEngine engine = SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM)
+                .threads(2)
+                .listener(SILENT)
+                .build();
+        engine.cancel();
+
+        SearchEngine.Result result = engine.run();
+        assertEquals(SearchEngine.StopReason.CANCELLED, result.getStopReason());
+        assertTrue(result.getRecords().isEmpty());
+    }
+
+    @Test
+    public void testTimeBudget() {
+        for (int threads = 1; threads <= 2; threads++) {
+            SearchEngine.Result result = SearchEngine.builder()
+                    .representation(SearchEngine.Representation.HISTOGRAM)
+                    .threads(threads)
+                    .timeBudget(Duration.ZERO)
+                    .listener(SILENT)
+                    .build()
+                    .run();
+
+            assertEquals(SearchEngine.StopReason.TIME_BUDGET, result.getStopReason());
+        }
+    }
+
+    @Test
+    public void testRanks() {
+        CandidateRanking ranking = new CandidateRanking(2);
+        long rank = ranking.rank("6788");
+
+        SearchEngine.Result result = SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM)
+                .fromRank(rank)
+                .toRank(rank + 1)
+                .listener(SILENT)
+                .build()
+                .run();
+
+        assertEquals(SearchEngine.StopReason.RANK_LIMIT, result.getStopReason());
+        assertEquals(1, result.getCounters().getCandidates());
+        assertEquals("6788", result.getRecords().get(6));
+
+        // splitting all numbers up to 8 digits finds the same largest persistence
+        long end = ranking.firstRank(9);
+        long middle = ranking.rank("2677889");
+        SearchEngine.Result first = SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM)
+                .toRank(middle)
+                .listener(SILENT)
+                .build()
+                .run();
+        SearchEngine.Result second = SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM)
+                .fromRank(middle)
+                .toRank(end)
+                .listener(SILENT)
+                .build()
+                .run();
+
+        assertEquals(SearchEngine.StopReason.RANK_LIMIT, first.getStopReason());
+        assertEquals(7, first.getMaxPersistence());
+        assertEquals("2677889", second.getRecords().get(8));
+        assertEquals("26888999", second.getRecords().get(9));
+        assertEquals(end, first.getCounters().getCandidates() + second.getCounters().getCandidates());
+
+        // an empty range stops immediately
+        result = SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM)
+                .fromRank(middle)
+                .toRank(middle)
+                .listener(SILENT)
+                .build()
+                .run();
+        assertEquals(SearchEngine.StopReason.RANK_LIMIT, result.getStopReason());
+        assertEquals(0, result.getCounters().getCandidates());
+    }
+
+    @Test
+    public void testListener() {
+        Map<Integer, String> found = new TreeMap<>();
+        List<String> progress = new ArrayList<>();
+        int[] finished = new int[1];
+
+        SearchEngine.Result result = SearchEngine.builder()
+                .targetPersistence(6)
+                .progressInterval(10)
+                .listener(new SearchListener() {
+                    @Override
+                    public void recordFound(int persistence, String number, SearchCounters counters) {
+                        found.put(persistence, number);
+                    }
+
+                    @Override
+                    public void progress(String number, int maxPersistence, SearchCounters counters) {
+                        progress.add(number);
+                    }
+
+                    @Override
+                    public void finished(int maxPersistence, SearchCounters counters) {
+                        finished[0] = maxPersistence;
+                    }
+                })
+                .build()
+                .run();
+
+        assertEquals(result.getRecords(), found);
+        assertEquals(result.getCounters().getCandidates() / 10, progress.size());
+        assertEquals(6, finished[0]);
+    }
+
+    @Test
+    public void testDecimalKernel() {
+        for (SearchEngine.Representation representation : new SearchEngine.Representation[] {
+                SearchEngine.Representation.BYTE_ARRAY, SearchEngine.Representation.BYTE_ARRAY_INTEGER }) {
+            SearchEngine.Result result = SearchEngine.builder()
+                    .representation(representation)
+                    .targetPersistence(9)
+                    .decimalKernel(true)
+                    .listener(SILENT)
+                    .build()
+                    .run();
+
+            assertEquals(SearchEngine.StopReason.TARGET_REACHED, result.getStopReason(), "Failed for " + representation);
+            for (int persistence = 3; persistence <= 9; persistence++) {
+                assertEquals(SMALLEST[persistence], result.getRecords().get(persistence),
+                        "Failed for " + representation + " and " + persistence + ": " + result);
+            }
+        }
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().representation(null).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().listener(null).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().targetPersistence(1).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().maxDigits(0).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().maxDigits(MathUtils.MAX_DIGITS).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().threads(0).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder()
+                .representation(SearchEngine.Representation.STRING).threads(2).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().threads(2).batchSize(0).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().threads(2).ringCapacity(0).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().threads(2).threadFactory(null).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().timeBudget(Duration.ofSeconds(-1)).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().progressInterval(0).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().fromRank(10).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM).fromRank(-1).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM).fromRank(10).toRank(9).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM).toRank(10).threads(2).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().base(2).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().base(37).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().base(16).threads(2).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM).base(16).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder()
+                .representation(SearchEngine.Representation.STRING).decimalKernel(true).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().threads(2).decimalKernel(true).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().base(16).decimalKernel(true).build());
+
+        // unbounded for other representations
+        SearchEngine.builder().representation(SearchEngine.Representation.STRING).maxDigits(1000).build();
+        SearchEngine.builder().representation(SearchEngine.Representation.HISTOGRAM).maxDigits(1000).threads(2).build();
+    }
+}
@@ -0,0 +1,211 @@
+package org.dstadler.multiplication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class WorkCoordinatorTest {
+    private static final SearchListener SILENT = new SearchListener() {
+    };
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("WorkCoordinatorTest");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void testClaim() throws IOException {
+        WorkCoordinator coordinator = new WorkCoordinator(directory, 10, Duration.ofMinutes(1));
+
+        WorkCoordinator.Lease lease = coordinator.claim(25);
+        assertNotNull(lease);
+        assertEquals(0, lease.getChunk());
+        assertEquals(0, lease.getFromRank());
+        assertEquals(10, lease.getToRank());
+
+        // another process gets the following chunks
+        WorkCoordinator other = new WorkCoordinator(directory, 10, Duration.ofMinutes(1));
+        assertEquals(1, other.claim(25).getChunk());
+        assertEquals(2, coordinator.claim(25).getChunk());
+        assertNull(other.claim(25));
+        assertNull(coordinator.claim(25));
+
+        // a released chunk can be claimed again immediately
+        lease.release();
+        WorkCoordinator.Lease again = other.claim(25);
+        assertNotNull(again);
+        assertEquals(0, again.getChunk());
+        assertTrue(Files.exists(directory.resolve("chunk-0.1.lease")));
+    }
+
+    @Test
+    public void testExpiredLease() throws IOException, InterruptedException {
+        WorkCoordinator coordinator = new WorkCoordinator(directory, 10, Duration.ofMillis(50));
+        WorkCoordinator.Lease first = coordinator.claim(10);
+        assertEquals(0, first.getChunk());
+        assertNull(coordinator.claim(10));
+
+        // renewed in the background without any events of a search
+        Thread.sleep(200);
+        assertNull(new WorkCoordinator(directory, 10, Duration.ofMillis(50)).claim(10));
+
+        // the process is gone
+        first.stopRenewal();
+        Thread.sleep(100);
+
+        WorkCoordinator.Lease lease = new WorkCoordinator(directory, 10, Duration.ofMillis(50)).claim(10);
+        assertNotNull(lease);
+        assertEquals(0, lease.getChunk());
+    }
+
+    @Test
+    public void testCompleteAndRecords() throws IOException {
+        CandidateRanking ranking = new CandidateRanking(2);
+        long middle = ranking.rank("2677889");
+        long end = ranking.firstRank(9);
+
+        WorkCoordinator coordinator = new WorkCoordinator(directory, middle, Duration.ofMinutes(1));
+        for (long from = 0; from < end; from += middle) {
+            WorkCoordinator.Lease lease = coordinator.claim(end);
+            assertEquals(from, lease.getFromRank());
+
+            SearchEngine.Result result = SearchEngine.builder()
+                    .representation(SearchEngine.Representation.HISTOGRAM)
+                    .fromRank(lease.getFromRank())
+                    .toRank(Math.min(lease.getToRank(), end))
+                    .listener(SILENT)
+                    .build()
+                    .run();
+            lease.complete(result);
+
+            assertTrue(Files.exists(directory.resolve("chunk-" + lease.getChunk() + ".done")));
+            assertTrue(Files.notExists(directory.resolve("chunk-" + lease.getChunk() + ".0.lease")));
+        }
+        assertNull(coordinator.claim(end));
+
+        // records of later chunks are only reported if they are higher than in earlier chunks
+        assertEquals(SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM)
+                .maxDigits(8)
+                .listener(SILENT)
+                .build()
+                .run()
+                .getRecords(), coordinator.getRecords());
+    }
+
+    @Test
+    public void testMultipleProcesses() throws InterruptedException, ExecutionException, IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        List<Future<SearchEngine.Result>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < 3; i++) {
+                futures.add(executor.submit(() -> SearchEngine.builder()
+                        .representation(SearchEngine.Representation.HISTOGRAM)
+                        .maxDigits(8)
+                        .workDirectory(directory)
+                        .chunkSize(100)
+                        .listener(SILENT)
+                        .build()
+                        .run()));
+            }
+
+            long candidates = 0;
+            for (Future<SearchEngine.Result> future : futures) {
+                SearchEngine.Result result = future.get();
+                assertEquals(SearchEngine.StopReason.DIGIT_LIMIT, result.getStopReason());
+                candidates += result.getCounters().getCandidates();
+            }
+
+            // no candidate was searched twice
+            assertEquals(new CandidateRanking(2).firstRank(9), candidates);
+
+            // when all processes are done, the records of all chunks are known
+            assertEquals("26888999", new WorkCoordinator(directory, 100, Duration.ofMinutes(1)).getRecords().get(9));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRecordsOfRunningChunk() throws IOException {
+        long end = new CandidateRanking(2).firstRank(9);
+
+        // another process still searches the first chunk
+        WorkCoordinator other = new WorkCoordinator(directory, 100, Duration.ofMinutes(1));
+        WorkCoordinator.Lease first = other.claim(end);
+        assertEquals(0, first.getChunk());
+
+        List<Integer> reported = new ArrayList<>();
+        SearchListener listener = new SearchListener() {
+            @Override
+            public void recordFound(int persistence, String number, SearchCounters counters) {
+                reported.add(persistence);
+            }
+        };
+        SearchEngine.Result result = SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM)
+                .maxDigits(8)
+                .workDirectory(directory)
+                .chunkSize(100)
+                .listener(listener)
+                .build()
+                .run();
+        assertEquals(end - 100, result.getCounters().getCandidates());
+
+        // the smaller numbers of the first chunk are not known yet
+        assertTrue(reported.isEmpty(), "Had: " + reported);
+        assertTrue(result.getRecords().isEmpty(), "Had: " + result.getRecords());
+
+        first.complete(SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM)
+                .toRank(100)
+                .listener(SILENT)
+                .build()
+                .run());
+        assertEquals("26888999", other.getRecords().get(9));
+        assertEquals(other.getRecords(), new WorkCoordinator(directory, 100, Duration.ofMinutes(1)).getRecords());
+    }
+
+    @Test
+    public void testInvalid() throws IOException {
+        assertThrows(IllegalArgumentException.class, () -> new WorkCoordinator(directory, 0, Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> new WorkCoordinator(directory, 10, Duration.ZERO));
+
+        new WorkCoordinator(directory, 10, Duration.ofMinutes(1));
+        assertThrows(IllegalArgumentException.class, () -> new WorkCoordinator(directory, 20, Duration.ofMinutes(1)));
+
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder().workDirectory(directory).build());
+        assertThrows(IllegalArgumentException.class, () -> SearchEngine.builder()
+                .representation(SearchEngine.Representation.HISTOGRAM).workDirectory(directory).chunkSize(0).build());
+    }
+}